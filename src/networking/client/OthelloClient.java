@@ -299,16 +299,16 @@ public class OthelloClient {
      */
     public void doMove(int index) throws ServerUnavailableException {
         if (!game.isGameOver()) {
-            if (index == 64) {
-                game.swapTurn();
+            Mark mark;
+            if (isPlayerTurn()) {
+                mark = ((AbstractPlayer) mainPlayer).getMark();
             } else {
-                Move currentMove;
-                if (isPlayerTurn()) {
-                    currentMove = new OthelloMove(((AbstractPlayer) mainPlayer).getMark(), index);
-                } else {
-                    currentMove = new OthelloMove(((AbstractPlayer) anotherPlayer).getMark(), index);
-                }
-                game.doMove(currentMove);
+                mark = ((AbstractPlayer) anotherPlayer).getMark();
+            }
+            if (index == OthelloMove.PASS_INDEX) {
+                game.doMove(OthelloMove.pass(mark));
+            } else {
+                game.doMove(OthelloMove.of(mark, index));
                 view.showMessage(game.getBoard().toIndexString() + "\n");
             }
             if (isPlayerTurn()) {
@@ -327,11 +327,11 @@ public class OthelloClient {
                                 this.firstBotMove = false;
                             }
                         } else {
-                            sendMove(64);
+                            sendMove(OthelloMove.PASS_INDEX);
                         }
                     } else {
                         if (game.getValidMoves().isEmpty()) {
-                            view.showMessage("There is no more valid move for you to make. Please input \"MOVE 64\" to skip your turn\n");
+                            view.showMessage("There is no more valid move for you to make. Please input \"MOVE " + OthelloMove.PASS_INDEX + "\" to skip your turn\n");
                         }
                     }
                 }
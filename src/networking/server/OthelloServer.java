@@ -290,9 +290,9 @@ public class OthelloServer implements Runnable {
             String[] splitClientInput = clientInput.split(Protocol.SEPARATOR);
             try {
                 int index = Integer.parseInt(splitClientInput[1]);
-                Move currentMove = new OthelloMove(player.getMark(), index);
-                if (index == 64) {
-                    if (currentGame.getValidMoves().isEmpty()) {
+                Move currentMove = OthelloMove.of(player.getMark(), index);
+                if (index == OthelloMove.PASS_INDEX) {
+                    if (currentGame.countValidMoves() == 0) {
                         clientHandler.getGame().getClientHandler1().sendInputToClient(Protocol.MOVE + Protocol.SEPARATOR + index);
                         clientHandler.getGame().getClientHandler2().sendInputToClient(Protocol.MOVE + Protocol.SEPARATOR + index);
                         doMove(currentMove, currentGame);
@@ -300,7 +300,7 @@ public class OthelloServer implements Runnable {
                         sendError(clientHandler, "You still have possible move(s); therefore, you cannot skip your turn!");
                     }
                 } else {
-                    if (currentGame.isValidMove(currentMove)) {
+                    if (currentGame.isValidMove(index)) {
                         clientHandler.getGame().getClientHandler1().sendInputToClient(Protocol.MOVE + Protocol.SEPARATOR + index);
                         clientHandler.getGame().getClientHandler2().sendInputToClient(Protocol.MOVE + Protocol.SEPARATOR + index);
                         doMove(currentMove, currentGame);
@@ -316,17 +316,12 @@ public class OthelloServer implements Runnable {
 
     /**
      * Executes a move in the Othello game and handles the game state.
-     * @param move the move to be executed.
+     * @param move the move to be executed, which can be a pass.
      * @param game the Othello game instance.
      * @throws ClientUnavailableException if a client is unavailable.
      */
     public void doMove(Move move, ServerGame game) throws ClientUnavailableException {
-        int index = ((OthelloMove) move).getIndex();
-        if (index == 64) {
-            game.swapTurn();
-        } else {
-            game.doMove(move);
-        }
+        game.doMove(move);
         if (game.isGameOver()) {
             if (game.getWinner() == Mark.BLACK) {
                 sendGameOver(game.getClientHandler1(), game.getClientHandler2(), Protocol.VICTORY, game.getClientHandler1().getUsername());
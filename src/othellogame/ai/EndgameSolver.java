@@ -0,0 +1,968 @@
+package othellogame.ai;
+
+import othellogame.model.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Represents an exact solver for Othello endgames, which finds the final disc difference of a position under perfect play.
+ * <p>
+ * The solver searches the whole remaining game tree with the negamax form of alpha-beta pruning, directly on the bitboards of the 2 players instead of on an {@link OthelloGame}. The moves are ordered differently depending on the number of empty fields left:
+ * <p>
+ * - With many empty fields, the moves are ordered fastest-first: the moves leaving the opponent the fewest moves first, which keeps the tree narrow. Corners and moves in regions with an odd number of empty fields are preferred among equal moves. The results of these positions are stored in a {@link TranspositionTable}.
+ * <p>
+ * - Near the end, computing the mobility costs more than it saves, so the moves are ordered by parity: the moves in a quadrant with an odd number of empty fields first, as the player moving last in a region usually gains from it.
+ * <p>
+ * - With 4 empty fields or less, the solver doesn't generate moves anymore: it tries the empty fields directly, and the last empty field is solved with a single flip computation per player.
+ * <p>
+ * With a {@link ForkJoinPool} (see {@link #setForkJoinPool(ForkJoinPool)}), the tree is split between the threads of the pool in the Young Brothers Wait style: a position with enough empty fields first searches its eldest move (the best move according to the ordering) on its own, and only then spawns a task for each of its other moves. The tasks are stolen by idle threads, share the window of their split point and are cut off as soon as one of them refutes the position. The score and the best move are exactly the same as without a pool.
+ * <p>
+ * A solver keeps state between searches (its table and node counter), so each thread calling {@link #solve(long, long)} needs its own solver.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see SmartStrategy
+ * @see BitBoard
+ */
+public final class EndgameSolver {
+    /**
+     * The move returned when there is no valid move, or when the search was stopped.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * The default minimum number of empty fields of a position whose moves are split between the threads of the pool.
+     */
+    public static final int DEFAULT_SPLIT_EMPTIES = 12;
+
+    /**
+     * A score higher than any disc difference.
+     */
+    private static final int INFINITY = Board.TOTALDIM + 1;
+
+    /**
+     * The number of empty fields from which the moves are ordered fastest-first instead of by parity.
+     */
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+
+    /**
+     * The number of empty fields from which the results are stored in the transposition table.
+     */
+    private static final int TABLE_EMPTIES = 8;
+
+    /**
+     * The number of empty fields up to which the empty fields are tried directly instead of generating the moves.
+     */
+    private static final int FEW_EMPTIES = 4;
+
+    /**
+     * The number of positions searched between 2 checks of the budget.
+     */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /**
+     * The default number of empty fields of the positions solved by the command-line tool.
+     */
+    private static final int DEFAULT_BENCHMARK_EMPTIES = 18;
+
+    /**
+     * The default number of positions solved by the command-line tool.
+     */
+    private static final int DEFAULT_BENCHMARK_POSITIONS = 5;
+
+    /**
+     * The bitboards of the 4 quadrants of the board.
+     */
+    private static final long[] QUADRANT_MASKS = {0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L};
+
+    /**
+     * The bitboard of the 4 corners.
+     */
+    private static final long CORNERS = 0x8100000000000081L;
+
+    /**
+     * The transposition table storing the results of the positions with many empty fields.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The solver whose search this solver takes part in: this solver itself, or the solver which created this solver to search split tasks.
+     */
+    private final EndgameSolver owner;
+
+    /**
+     * The total number of positions searched by the current search, over all threads, updated at each check of the budget.
+     */
+    private final AtomicLong sharedNodes = new AtomicLong();
+
+    /**
+     * The helper solvers which are not searching a split task at the moment, kept for reuse by the next tasks.
+     */
+    private final Queue<EndgameSolver> idleHelpers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The pool in which the tree is split, or null to search on the calling thread only.
+     */
+    private volatile ForkJoinPool pool;
+
+    /**
+     * The minimum number of empty fields of a position whose moves are split between the threads of the pool.
+     */
+    private volatile int splitEmpties = DEFAULT_SPLIT_EMPTIES;
+
+    /**
+     * The pool of the current search, or null if the current search is not split.
+     */
+    private ForkJoinPool activePool;
+
+    /**
+     * The innermost split point of the task searched by this solver, or null for the solver which started the search.
+     */
+    private SplitPoint splitPoint;
+
+    /**
+     * Whether the budget of the current search ran out, which stops all the threads of the search.
+     */
+    private volatile boolean halted;
+
+    /**
+     * The moves of the position being searched at each number of empty fields.
+     */
+    private final int[][] moveLists = new int[Board.TOTALDIM + 1][Board.TOTALDIM];
+
+    /**
+     * The ordering keys of the moves of the position being searched at each number of empty fields.
+     */
+    private final int[][] keyLists = new int[Board.TOTALDIM + 1][Board.TOTALDIM];
+
+    /**
+     * The discs flipped by the moves of the position being searched at each number of empty fields.
+     */
+    private final long[][] flipLists = new long[Board.TOTALDIM + 1][Board.TOTALDIM];
+
+    /**
+     * The number of positions searched by the current search (or task, for a helper solver).
+     */
+    private long nodes;
+
+    /**
+     * The number of positions left to search before the next check of the budget.
+     */
+    private int budgetCountdown;
+
+    /**
+     * The number of positions of {@link #nodes} already added to {@link #sharedNodes}.
+     */
+    private long reportedNodes;
+
+    /**
+     * The running time of the last search in nanoseconds.
+     */
+    private long nanos;
+
+    /**
+     * The value of {@link System#nanoTime()} at which the current search must stop, or 0 for no time limit.
+     */
+    private long deadline;
+
+    /**
+     * The maximum number of positions of the current search, or 0 for no limit.
+     */
+    private long nodeLimit;
+
+    /**
+     * Whether the budget ran out during the current search.
+     */
+    private boolean stopped;
+
+    /**
+     * The best move found by the last search.
+     */
+    private int bestMove = NO_MOVE;
+
+    /**
+     * Constructs an {@code EndgameSolver} with a transposition table of the default size.
+     */
+    public EndgameSolver() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * Constructs an {@code EndgameSolver} storing its results in the specified transposition table.
+     * @param table the transposition table of the solver, which must not be shared with a search storing other kinds of scores.
+     */
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+        this.owner = this;
+    }
+
+    /**
+     * Constructs a helper {@code EndgameSolver} searching split tasks for another solver, sharing its table and budget.
+     * @param owner the solver which started the search.
+     */
+    private EndgameSolver(EndgameSolver owner) {
+        this.table = owner.table;
+        this.owner = owner;
+        this.budgetCountdown = CLOCK_INTERVAL;
+    }
+
+    /**
+     * Sets the pool in which the tree is split between several threads.
+     * @param pool the pool running the split tasks, for example {@link ForkJoinPool#commonPool()}, or null to search on the calling thread only (the default).
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the minimum number of empty fields of a position whose moves are split between the threads of the pool.
+     * <p>
+     * A lower number gives the idle threads more tasks to steal, but smaller ones, whose overhead (and the work done by tasks cut off later) can outweigh the gain.
+     * @param splitEmpties the minimum number of empty fields of a split point, more than 4 (12 by default).
+     * @throws IllegalArgumentException if the number of empty fields is 4 or less.
+     */
+    public void setSplitEmpties(int splitEmpties) {
+        if (splitEmpties <= FEW_EMPTIES) {
+            throw new IllegalArgumentException("The number of empty fields of a split point must be more than " + FEW_EMPTIES + "!");
+        }
+        this.splitEmpties = splitEmpties;
+    }
+
+    /**
+     * Solves a position without any limit.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @return the final disc difference (the player's discs minus the opponent's discs) under perfect play.
+     */
+    public int solve(long player, long opponent) {
+        return solve(player, opponent, 0, 0);
+    }
+
+    /**
+     * Solves a position within a budget.
+     * <p>
+     * The best move is the move with the best final disc difference, or the move with the highest index among several moves with the best difference, as for the {@link SmartStrategy}. It can be read with {@link #getBestMove()}.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param deadline the value of {@link System#nanoTime()} at which the search must stop, or 0 for no time limit.
+     * @param nodeLimit the maximum number of positions to search, or 0 for no limit.
+     * @return the final disc difference under perfect play, or 0 if the budget ran out (see {@link #isStopped()}).
+     */
+    public int solve(long player, long opponent, long deadline, long nodeLimit) {
+        long start = System.nanoTime();
+        this.deadline = deadline;
+        this.nodeLimit = nodeLimit;
+        this.nodes = 0;
+        this.budgetCountdown = CLOCK_INTERVAL;
+        this.reportedNodes = 0;
+        this.sharedNodes.set(0);
+        this.halted = false;
+        this.stopped = false;
+        this.bestMove = NO_MOVE;
+        this.activePool = pool;
+        table.newSearch();
+        int score = activePool == null ? solvePosition(player, opponent)
+                : activePool.invoke(ForkJoinTask.adapt(() -> solvePosition(player, opponent)));
+        nodes = sharedNodes.addAndGet(nodes - reportedNodes);
+        nanos = System.nanoTime() - start;
+        return stopped ? 0 : score;
+    }
+
+    /**
+     * Solves the root position of a search.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @return the final disc difference under perfect play.
+     */
+    private int solvePosition(long player, long opponent) {
+        int empties = Long.bitCount(~(player | opponent));
+        long moves = BitBoard.generateMoves(player, opponent);
+        int score;
+        if (moves != 0) {
+            score = solveRoot(player, opponent, moves, empties);
+        } else if (BitBoard.generateMoves(opponent, player) != 0) {
+            score = -search(opponent, player, -INFINITY, INFINITY, empties, true);
+        } else {
+            score = finalScore(player, opponent);
+        }
+        return score;
+    }
+
+    /**
+     * Gets the best move found by the last search.
+     * @return the index of the best move, or {@link #NO_MOVE} if the player had to pass or the search was stopped.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Gets the number of positions searched by the last search, by all threads together.
+     * @return the number of searched positions.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the running time of the last search.
+     * @return the running time in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Gets the speed of the last search.
+     * @return the number of positions searched per second, by all threads together.
+     */
+    public double getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+    }
+
+    /**
+     * Checks whether the budget ran out during the last search.
+     * @return true if the last search was stopped before solving the position, false otherwise.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Searches the valid moves of the root position, giving the exact difference of the best move and the highest index among equally good moves.
+     * <p>
+     * The first move is searched with the full window; every other move is first tested with a null window, and only searched again for its exact difference if it can beat the best move (or tie with it, if its index is higher).
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param moves the bitboard of the valid moves.
+     * @param empties the number of empty fields.
+     * @return the final disc difference of the best move.
+     */
+    private int solveRoot(long player, long opponent, long moves, int empties) {
+        nodes++;
+        budgetCountdown--;
+        int count = orderMoves(player, opponent, moves, empties, NO_MOVE);
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int index = nextMove(empties, i, count);
+            long flips = flipLists[empties][i];
+            long newPlayer = opponent & ~flips;
+            long newOpponent = player | flips | (1L << index);
+            int score;
+            if (i == 0) {
+                score = -search(newPlayer, newOpponent, -INFINITY, INFINITY, empties - 1, false);
+            } else {
+                int alpha = index > bestMove ? bestScore - 1 : bestScore;
+                score = -search(newPlayer, newOpponent, -alpha - 1, -alpha, empties - 1, false);
+                if (score > alpha) {
+                    score = -search(newPlayer, newOpponent, -INFINITY, -alpha, empties - 1, false);
+                }
+            }
+            if (stopped) {
+                bestMove = NO_MOVE;
+                return 0;
+            }
+            if (score > bestScore || (score == bestScore && index > bestMove)) {
+                bestScore = score;
+                bestMove = index;
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches a position with more than {@link #FEW_EMPTIES} empty fields.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param alpha the lowest difference the player to move is already sure to get.
+     * @param beta the highest difference the opponent allows the player to move to get.
+     * @param empties the number of empty fields.
+     * @param passed whether the opponent has just passed.
+     * @return the final disc difference from the point of view of the player to move.
+     */
+    private int search(long player, long opponent, int alpha, int beta, int empties, boolean passed) {
+        if (empties <= FEW_EMPTIES) {
+            return solveFew(player, opponent, alpha, beta, ~(player | opponent), empties, passed);
+        }
+        nodes++;
+        budgetCountdown--;
+        if (checkBudget()) {
+            return 0;
+        }
+        long moves = BitBoard.generateMoves(player, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return finalScore(player, opponent);
+            }
+            return -search(opponent, player, -beta, -alpha, empties, true);
+        }
+        long hash = 0;
+        int tableMove = NO_MOVE;
+        if (empties >= TABLE_EMPTIES) {
+            hash = hash(player, opponent);
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                int bound = TranspositionTable.bound(entry);
+                int score = TranspositionTable.score(entry);
+                if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+                tableMove = TranspositionTable.move(entry);
+            }
+        }
+        int count = orderMoves(player, opponent, moves, empties, tableMove);
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestIndex = NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            if (i == 1 && count > 2 && activePool() != null && empties >= owner.splitEmpties) {
+                SplitPoint split = new SplitPoint(splitPoint, alpha, beta, bestScore, bestIndex);
+                splitMoves(player, opponent, empties, count, split);
+                if (owner.halted || (splitPoint != null && splitPoint.isAborted())) {
+                    stopped = true;
+                    return 0;
+                }
+                bestScore = split.bestScore;
+                bestIndex = split.bestIndex;
+                break;
+            }
+            int index = nextMove(empties, i, count);
+            long flips = flipLists[empties][i];
+            long newPlayer = opponent & ~flips;
+            long newOpponent = player | flips | (1L << index);
+            int score;
+            if (i == 0) {
+                score = -search(newPlayer, newOpponent, -beta, -alpha, empties - 1, false);
+            } else {
+                score = -search(newPlayer, newOpponent, -alpha - 1, -alpha, empties - 1, false);
+                if (score > alpha && score < beta) {
+                    score = -search(newPlayer, newOpponent, -beta, -alpha, empties - 1, false);
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestIndex = index;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (empties >= TABLE_EMPTIES && !stopped) {
+            int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                    : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(hash, empties, bound, bestScore, bestIndex);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Gets the pool of the current search.
+     * @return the pool in which the current search is split, or null if it is searched on a single thread.
+     */
+    private ForkJoinPool activePool() {
+        return owner.activePool;
+    }
+
+    /**
+     * Searches all moves of a position but the eldest in parallel, with a task per move, once the eldest move has been searched.
+     * <p>
+     * The tasks are forked in the order of the move list, so the most promising moves are searched (or stolen) first.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param empties the number of empty fields.
+     * @param count the number of moves in the move list.
+     * @param split the split point collecting the results of the tasks.
+     */
+    private void splitMoves(long player, long opponent, int empties, int count, SplitPoint split) {
+        List<SplitTask> tasks = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            int index = nextMove(empties, i, count);
+            long flips = flipLists[empties][i];
+            tasks.add(new SplitTask(owner, split, opponent & ~flips, player | flips | (1L << index), index, empties - 1));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Takes an idle helper solver, or creates one, to search a task of a split point.
+     * <p>
+     * The countdown to the next check of the budget carries over from the previous tasks of the helper, so the budget is also checked regularly when the tasks are small.
+     * @param split the split point of the task.
+     * @return a helper solver ready for a new task.
+     */
+    private EndgameSolver takeHelper(SplitPoint split) {
+        EndgameSolver helper = idleHelpers.poll();
+        if (helper == null) {
+            helper = new EndgameSolver(this);
+        }
+        helper.splitPoint = split;
+        helper.nodes = 0;
+        helper.reportedNodes = 0;
+        helper.stopped = false;
+        return helper;
+    }
+
+    /**
+     * Returns a helper solver whose task is finished, adding the positions it searched to the total of the search and halting the search if they exceed the node limit.
+     * @param helper the helper solver.
+     */
+    private void releaseHelper(EndgameSolver helper) {
+        long totalNodes = sharedNodes.addAndGet(helper.nodes - helper.reportedNodes);
+        if (nodeLimit != 0 && totalNodes >= nodeLimit) {
+            halted = true;
+        }
+        helper.splitPoint = null;
+        idleHelpers.offer(helper);
+    }
+
+    /**
+     * Searches a position with {@link #FEW_EMPTIES} empty fields or less, trying the empty fields directly in parity order.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param alpha the lowest difference the player to move is already sure to get.
+     * @param beta the highest difference the opponent allows the player to move to get.
+     * @param empty the bitboard of the empty fields.
+     * @param empties the number of empty fields.
+     * @param passed whether the opponent has just passed.
+     * @return the final disc difference from the point of view of the player to move.
+     */
+    private int solveFew(long player, long opponent, int alpha, int beta, long empty, int empties, boolean passed) {
+        nodes++;
+        budgetCountdown--;
+        if (empties == 1) {
+            return solveLast(player, opponent, Long.numberOfTrailingZeros(empty));
+        }
+        if (empties == 0) {
+            return finalScore(player, opponent);
+        }
+        long odd = oddQuadrants(empty);
+        int bestScore = -INFINITY;
+        for (int pass = 0; pass < 2; pass++) {
+            for (long fields = pass == 0 ? empty & odd : empty & ~odd; fields != 0; fields &= fields - 1) {
+                int index = Long.numberOfTrailingZeros(fields);
+                long flips = BitBoard.computeFlips(index, player, opponent);
+                if (flips == 0) {
+                    continue;
+                }
+                long move = 1L << index;
+                int score = -solveFew(opponent & ~flips, player | flips | move, -beta, -alpha, empty & ~move, empties - 1, false);
+                if (score > bestScore) {
+                    bestScore = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            return bestScore;
+                        }
+                    }
+                }
+            }
+        }
+        if (bestScore == -INFINITY) {
+            if (passed) {
+                return finalScore(player, opponent);
+            }
+            return -solveFew(opponent, player, -beta, -alpha, empty, empties, true);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Solves a position with a single empty field: the player to move plays there if possible, otherwise the opponent does, and the game ends.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param index the index of the empty field.
+     * @return the final disc difference from the point of view of the player to move.
+     */
+    private int solveLast(long player, long opponent, int index) {
+        int score = Long.bitCount(player) - Long.bitCount(opponent);
+        int flipped = Long.bitCount(BitBoard.computeFlips(index, player, opponent));
+        if (flipped != 0) {
+            return score + 2 * flipped + 1;
+        }
+        flipped = Long.bitCount(BitBoard.computeFlips(index, opponent, player));
+        if (flipped != 0) {
+            return score - 2 * flipped - 1;
+        }
+        return score;
+    }
+
+    /**
+     * Fills the move list of a number of empty fields with the valid moves, their flipped discs and their ordering keys.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param moves the bitboard of the valid moves.
+     * @param empties the number of empty fields.
+     * @param tableMove the best move stored in the transposition table, or {@link #NO_MOVE}.
+     * @return the number of moves in the list.
+     */
+    private int orderMoves(long player, long opponent, long moves, int empties, int tableMove) {
+        int[] moveList = moveLists[empties];
+        int[] keyList = keyLists[empties];
+        long[] flipList = flipLists[empties];
+        long odd = oddQuadrants(~(player | opponent));
+        boolean fastestFirst = empties >= FASTEST_FIRST_EMPTIES;
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int index = Long.numberOfTrailingZeros(moves);
+            long move = 1L << index;
+            long flips = BitBoard.computeFlips(index, player, opponent);
+            int key = ((odd & move) != 0 ? 2 : 0) + ((CORNERS & move) != 0 ? 1 : 0);
+            if (index == tableMove) {
+                key = Integer.MAX_VALUE;
+            } else if (fastestFirst) {
+                long opponentMoves = BitBoard.generateMoves(opponent & ~flips, player | flips | move);
+                key += (Board.TOTALDIM - Long.bitCount(opponentMoves) - Long.bitCount(opponentMoves & CORNERS)) << 2;
+            }
+            moveList[count] = index;
+            keyList[count] = key;
+            flipList[count] = flips;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Selects the next move to search from the move list of a number of empty fields, moving the remaining move with the highest ordering key (and its flipped discs) to the specified position.
+     * @param empties the number of empty fields.
+     * @param position the position in the move list of the next move.
+     * @param count the number of moves in the list.
+     * @return the index of the next move.
+     */
+    private int nextMove(int empties, int position, int count) {
+        int[] moveList = moveLists[empties];
+        int[] keyList = keyLists[empties];
+        long[] flipList = flipLists[empties];
+        int best = position;
+        for (int i = position + 1; i < count; i++) {
+            if (keyList[i] > keyList[best]) {
+                best = i;
+            }
+        }
+        int move = moveList[best];
+        int key = keyList[best];
+        long flips = flipList[best];
+        moveList[best] = moveList[position];
+        keyList[best] = keyList[position];
+        flipList[best] = flipList[position];
+        moveList[position] = move;
+        keyList[position] = key;
+        flipList[position] = flips;
+        return move;
+    }
+
+    /**
+     * Checks whether the budget of the search has run out, and stops the search if so.
+     * <p>
+     * The budget is only checked once every {@link #CLOCK_INTERVAL} positions, counted down by every searched position including the positions with few empty fields, which don't check it themselves. The positions searched by all threads count towards the node limit, which may therefore be exceeded by up to {@link #CLOCK_INTERVAL} positions per thread. A helper solver also stops when the search has been halted by another thread, or when its task has been cut off by a sibling task.
+     * @return true if the search is stopped, false otherwise.
+     */
+    private boolean checkBudget() {
+        if (!stopped && budgetCountdown <= 0) {
+            budgetCountdown = CLOCK_INTERVAL;
+            long totalNodes = owner.sharedNodes.addAndGet(nodes - reportedNodes);
+            reportedNodes = nodes;
+            if (owner.halted || (owner.nodeLimit != 0 && totalNodes >= owner.nodeLimit)
+                    || (owner.deadline != 0 && System.nanoTime() - owner.deadline >= 0)) {
+                owner.halted = true;
+                stopped = true;
+            } else if (splitPoint != null && splitPoint.isAborted()) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Computes the fields of the quadrants which contain an odd number of empty fields.
+     * @param empty the bitboard of the empty fields.
+     * @return the bitboard of the quadrants with an odd number of empty fields.
+     */
+    private static long oddQuadrants(long empty) {
+        long odd = 0;
+        for (long quadrant : QUADRANT_MASKS) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        return odd;
+    }
+
+    /**
+     * Scores a finished game.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @return the player's discs minus the opponent's discs.
+     */
+    private static int finalScore(long player, long opponent) {
+        return Long.bitCount(player) - Long.bitCount(opponent);
+    }
+
+    /**
+     * Computes the hash of a position for the transposition table.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @return the hash of the position.
+     */
+    private static long hash(long player, long opponent) {
+        long hash = player * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opponent * 0xC2B2AE3D27D4EB4FL, 31);
+        hash = (hash ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * Represents a position whose moves are searched in parallel, collecting the results of its tasks.
+     * @author Dinh Thuy Nhat Vy
+     * @version 1.0, 12/07/2023
+     * @see EndgameSolver
+     */
+    private static final class SplitPoint {
+        /**
+         * The split point of the task searching this position, or null if the position is searched by the solver which started the search.
+         */
+        private final SplitPoint parent;
+
+        /**
+         * The highest difference the opponent allows the player to move to get.
+         */
+        private final int beta;
+
+        /**
+         * The lowest difference the player to move is already sure to get.
+         */
+        private int alpha;
+
+        /**
+         * The best difference found so far.
+         */
+        private int bestScore;
+
+        /**
+         * The index of the move with the best difference found so far.
+         */
+        private int bestIndex;
+
+        /**
+         * Whether a move has refuted the position, which cuts off the remaining tasks.
+         */
+        private volatile boolean cutoff;
+
+        /**
+         * Constructs a {@code SplitPoint} with the result of the eldest move.
+         * @param parent the split point of the task searching the position, or null.
+         * @param alpha the lowest difference the player to move is sure to get after the eldest move.
+         * @param beta the highest difference the opponent allows the player to move to get.
+         * @param bestScore the difference of the eldest move.
+         * @param bestIndex the index of the eldest move.
+         */
+        private SplitPoint(SplitPoint parent, int alpha, int beta, int bestScore, int bestIndex) {
+            this.parent = parent;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.bestScore = bestScore;
+            this.bestIndex = bestIndex;
+        }
+
+        /**
+         * Gets the current lower bound of the window.
+         * @return the lowest difference the player to move is already sure to get.
+         */
+        private synchronized int getAlpha() {
+            return alpha;
+        }
+
+        /**
+         * Adds the result of a task, raising the window and cutting off the other tasks if the move refutes the position.
+         * @param score the difference of the move.
+         * @param index the index of the move.
+         */
+        private synchronized void update(int score, int index) {
+            if (score > bestScore) {
+                bestScore = score;
+                bestIndex = index;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        cutoff = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks whether the tasks of this split point are not needed anymore, because this split point or one of the split points it belongs to has been cut off.
+         * @return true if the tasks must stop, false otherwise.
+         */
+        private boolean isAborted() {
+            for (SplitPoint split = this; split != null; split = split.parent) {
+                if (split.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Represents a fork-join task searching a move of a split point with a helper solver.
+     * <p>
+     * The move is first tested with a null window at the current lower bound of the split point, and searched again with the full window only if it beats that bound. If another task has raised the bound in the meantime, the move is tested again against the new bound instead.
+     * @author Dinh Thuy Nhat Vy
+     * @version 1.0, 12/07/2023
+     * @see EndgameSolver
+     */
+    private static final class SplitTask extends RecursiveAction {
+        /**
+         * Custom serialization ID to control versioning of the class during deserialization.
+         */
+        @Serial
+        private static final long serialVersionUID = 230720236L;
+
+        /**
+         * The solver which started the search.
+         */
+        private final EndgameSolver owner;
+
+        /**
+         * The split point of the move.
+         */
+        private final SplitPoint split;
+
+        /**
+         * The bitboard of the discs of the player to move after the move.
+         */
+        private final long player;
+
+        /**
+         * The bitboard of the discs of the opponent after the move.
+         */
+        private final long opponent;
+
+        /**
+         * The index of the move.
+         */
+        private final int index;
+
+        /**
+         * The number of empty fields after the move.
+         */
+        private final int empties;
+
+        /**
+         * Constructs a {@code SplitTask} for a move of a split point.
+         * @param owner the solver which started the search.
+         * @param split the split point of the move.
+         * @param player the bitboard of the discs of the player to move after the move.
+         * @param opponent the bitboard of the discs of the opponent after the move.
+         * @param index the index of the move.
+         * @param empties the number of empty fields after the move.
+         */
+        private SplitTask(EndgameSolver owner, SplitPoint split, long player, long opponent, int index, int empties) {
+            this.owner = owner;
+            this.split = split;
+            this.player = player;
+            this.opponent = opponent;
+            this.index = index;
+            this.empties = empties;
+        }
+
+        /**
+         * Searches the move and adds its difference to the split point, unless the task is cut off or the budget runs out.
+         */
+        @Override
+        protected void compute() {
+            if (split.isAborted() || owner.halted) {
+                return;
+            }
+            EndgameSolver helper = owner.takeHelper(split);
+            int alpha = split.getAlpha();
+            int score = -helper.search(player, opponent, -alpha - 1, -alpha, empties, false);
+            while (!helper.stopped && score > alpha && score < split.beta) {
+                int newAlpha = split.getAlpha();
+                if (score > newAlpha) {
+                    score = -helper.search(player, opponent, -split.beta, -newAlpha, empties, false);
+                    break;
+                }
+                alpha = newAlpha;
+                score = -helper.search(player, opponent, -alpha - 1, -alpha, empties, false);
+            }
+            if (!helper.stopped) {
+                split.update(score, index);
+            }
+            owner.releaseHelper(helper);
+        }
+    }
+
+    /**
+     * Solves random positions with a number of empty fields, first on a single thread and then split in the common pool, and prints the speed of both and the speedup.
+     * @param args the number of empty fields (18 by default), the number of positions (5 by default) and the minimum number of empty fields of a split point (12 by default).
+     */
+    public static void main(String[] args) {
+        int empties = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BENCHMARK_EMPTIES;
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BENCHMARK_POSITIONS;
+        EndgameSolver sequential = new EndgameSolver();
+        EndgameSolver parallel = new EndgameSolver();
+        parallel.setForkJoinPool(ForkJoinPool.commonPool());
+        if (args.length > 2) {
+            parallel.setSplitEmpties(Integer.parseInt(args[2]));
+        }
+        Random random = new Random(empties);
+        long sequentialNanos = 0;
+        long parallelNanos = 0;
+        for (int n = 0; n < positions; n++) {
+            long[] position = randomPosition(random, empties);
+            int score = sequential.solve(position[0], position[1]);
+            sequentialNanos += sequential.getNanos();
+            int parallelScore = parallel.solve(position[0], position[1]);
+            parallelNanos += parallel.getNanos();
+            System.out.printf(Locale.ROOT, "Position %d: score %d%s, single thread %d nodes in %.1f ms (%.0f nodes/s), fork-join %d nodes in %.1f ms (%.0f nodes/s)%n",
+                    n + 1, score, score == parallelScore ? "" : " (fork-join: " + parallelScore + ")",
+                    sequential.getNodes(), sequential.getNanos() / 1e6, sequential.getNodesPerSecond(),
+                    parallel.getNodes(), parallel.getNanos() / 1e6, parallel.getNodesPerSecond());
+        }
+        System.out.printf(Locale.ROOT, "Speedup with %d threads: %.2f%n", ForkJoinPool.commonPool().getParallelism(), (double) sequentialNanos / parallelNanos);
+    }
+
+    /**
+     * Plays random moves from the start position until a number of empty fields is left, starting again whenever the game ends before.
+     * @param random the source of the random moves.
+     * @param empties the number of empty fields of the position.
+     * @return the bitboards of the discs of the player to move and of the opponent.
+     */
+    private static long[] randomPosition(Random random, int empties) {
+        Board start = new Board();
+        long player = start.getDiscs(Mark.BLACK);
+        long opponent = start.getDiscs(Mark.WHITE);
+        boolean passed = false;
+        while (Long.bitCount(~(player | opponent)) > empties) {
+            long moves = BitBoard.generateMoves(player, opponent);
+            if (moves == 0) {
+                if (passed) {
+                    player = start.getDiscs(Mark.BLACK);
+                    opponent = start.getDiscs(Mark.WHITE);
+                    passed = false;
+                    continue;
+                }
+                passed = true;
+            } else {
+                passed = false;
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                    moves &= moves - 1;
+                }
+                int index = Long.numberOfTrailingZeros(moves);
+                long flips = BitBoard.computeFlips(index, player, opponent);
+                player |= flips | (1L << index);
+                opponent &= ~flips;
+            }
+            long swap = player;
+            player = opponent;
+            opponent = swap;
+        }
+        return new long[]{player, opponent};
+    }
+}
@@ -37,14 +37,20 @@ public class NaiveStrategy implements Strategy {
     /**
      * Determines a move based on the naive strategy.
      * <p>
-     * The naive strategy randomly selects a valid move from the list of available valid moves in the Othello game.
+     * The naive strategy randomly selects a valid move from the bitboard of available valid moves in the Othello game.
      * @param game the current Othello game.
-     * @return a randomly selected valid move based on the naive strategy.
+     * @return a randomly selected valid move based on the naive strategy, or null if there is no valid move.
      */
     @Override
     public Move determineMove(Game game) {
-        OthelloGame othelloGame = (OthelloGame) game;
-        int randomIndex = (int) Math.floor(Math.random() * othelloGame.getValidMoves().size());
-        return othelloGame.getValidMoves().get(randomIndex);
+        long moves = game.getValidMovesMask();
+        int randomIndex = (int) Math.floor(Math.random() * Long.bitCount(moves));
+        for (int i = 0; i < randomIndex; i++) {
+            moves &= moves - 1;
+        }
+        if (moves == 0) {
+            return null;
+        }
+        return OthelloMove.of(game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE, Long.numberOfTrailingZeros(moves));
     }
 }
\ No newline at end of file
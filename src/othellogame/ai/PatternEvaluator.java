@@ -0,0 +1,474 @@
+package othellogame.ai;
+
+import othellogame.model.*;
+
+import java.io.*;
+import java.util.zip.*;
+
+/**
+ * Evaluates Othello positions with lookup tables over the standard board patterns.
+ * <p>
+ * A pattern is a fixed set of up to 10 fields, for example an edge with its 2 X-squares, a 3x3 corner block or a diagonal. Each field is empty, owned by the player to move or owned by the opponent, so the content of a pattern is a ternary number that directly indexes a table of weights. The score of a position is the sum of the weights of all patterns on the board, including their rotated and mirrored copies, which only costs a few shifts and one table read per pattern instead of scanning the board.
+ * <p>
+ * The weights depend on the phase of the game, which is given by the number of discs on the board. They are stored in a compact binary file (see {@link #save(OutputStream)} and {@link #load(InputStream)}), and {@link #getDefault()} falls back to weights derived from the disc-square table of the heuristic when no file is available.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see PatternStrategy
+ * @see Symmetry
+ */
+public final class PatternEvaluator {
+    /**
+     * The 3x3 block of fields in a corner.
+     */
+    public static final int CORNER_3X3 = 0;
+
+    /**
+     * The 2x5 block of fields along an edge, starting in a corner.
+     */
+    public static final int CORNER_2X5 = 1;
+
+    /**
+     * The 8 fields of an edge and the 2 X-squares next to its corners.
+     */
+    public static final int EDGE_2X = 2;
+
+    /**
+     * The second row (or column) from an edge.
+     */
+    public static final int ROW_2 = 3;
+
+    /**
+     * The third row (or column) from an edge.
+     */
+    public static final int ROW_3 = 4;
+
+    /**
+     * The fourth row (or column) from an edge.
+     */
+    public static final int ROW_4 = 5;
+
+    /**
+     * The 2 main diagonals of 8 fields.
+     */
+    public static final int DIAGONAL_8 = 6;
+
+    /**
+     * The diagonals of 7 fields.
+     */
+    public static final int DIAGONAL_7 = 7;
+
+    /**
+     * The diagonals of 6 fields.
+     */
+    public static final int DIAGONAL_6 = 8;
+
+    /**
+     * The diagonals of 5 fields.
+     */
+    public static final int DIAGONAL_5 = 9;
+
+    /**
+     * The diagonals of 4 fields.
+     */
+    public static final int DIAGONAL_4 = 10;
+
+    /**
+     * The number of pattern types.
+     */
+    public static final int PATTERNS = 11;
+
+    /**
+     * The number of phases of the game, each covering 5 different numbers of discs on the board.
+     */
+    public static final int PHASES = 13;
+
+    /**
+     * The fields of each pattern type, in the order of their ternary digits, for the copy of the pattern in the top-left corner or along the top edge.
+     */
+    private static final int[][] FIELDS = {
+        {0, 1, 2, 8, 9, 10, 16, 17, 18},
+        {0, 1, 2, 3, 4, 8, 9, 10, 11, 12},
+        {0, 1, 2, 3, 4, 5, 6, 7, 9, 14},
+        {8, 9, 10, 11, 12, 13, 14, 15},
+        {16, 17, 18, 19, 20, 21, 22, 23},
+        {24, 25, 26, 27, 28, 29, 30, 31},
+        {0, 9, 18, 27, 36, 45, 54, 63},
+        {1, 10, 19, 28, 37, 46, 55},
+        {2, 11, 20, 29, 38, 47},
+        {3, 12, 21, 30, 39},
+        {4, 13, 22, 31}
+    };
+
+    /**
+     * The transforms (see {@link Symmetry}) giving the copies of each pattern type on the board.
+     */
+    private static final int[][] TRANSFORMS = {
+        {0, 1, 2, 3},
+        {0, 1, 2, 3, 4, 5, 6, 7},
+        {0, 2, 4, 6},
+        {0, 2, 4, 6},
+        {0, 2, 4, 6},
+        {0, 2, 4, 6},
+        {0, 1},
+        {0, 1, 2, 3},
+        {0, 1, 2, 3},
+        {0, 1, 2, 3},
+        {0, 1, 2, 3}
+    };
+
+    /**
+     * Identifies the binary weights file, which starts with the characters "OTPW".
+     */
+    private static final int MAGIC = 0x4F545057;
+
+    /**
+     * The version of the format of the weights file.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The name of the classpath resource holding the default weights.
+     */
+    private static final String DEFAULT_WEIGHTS = "patterns.bin";
+
+    /**
+     * The value of one point of the disc-square table in the default weights.
+     */
+    private static final int SCALE = 64;
+
+    /**
+     * Converts a binary number of up to 10 bits into the ternary number with the same digits, so that the index of a pattern is the ternary number of the player's fields plus twice the ternary number of the opponent's fields.
+     */
+    private static final int[] TERNARY = new int[1 << 10];
+
+    static {
+        for (int i = 1; i < TERNARY.length; i++) {
+            int lowestBit = Integer.numberOfTrailingZeros(i);
+            TERNARY[i] = TERNARY[i & (i - 1)] + pow3(lowestBit);
+        }
+    }
+
+    /**
+     * The evaluator returned by {@link #getDefault()}, created the first time it's requested.
+     */
+    private static PatternEvaluator defaultEvaluator;
+
+    /**
+     * The weights, indexed by the phase, the pattern type and the ternary index of the pattern.
+     */
+    private final short[][][] weights;
+
+    /**
+     * Constructs a {@code PatternEvaluator} with the specified weights.
+     * <p>
+     * The weights are copied, so the evaluator can't be changed after it's created and can be shared by several threads.
+     * @param weights the weights, indexed by the phase, the pattern type and the ternary index of the pattern.
+     * @throws IllegalArgumentException if the weights don't have one table of the right size per phase and pattern type.
+     */
+    public PatternEvaluator(short[][][] weights) {
+        if (weights.length != PHASES) {
+            throw new IllegalArgumentException("The weights must have " + PHASES + " phases!");
+        }
+        this.weights = new short[PHASES][PATTERNS][];
+        for (int phase = 0; phase < PHASES; phase++) {
+            if (weights[phase].length != PATTERNS) {
+                throw new IllegalArgumentException("The weights must have " + PATTERNS + " patterns per phase!");
+            }
+            for (int pattern = 0; pattern < PATTERNS; pattern++) {
+                if (weights[phase][pattern].length != size(pattern)) {
+                    throw new IllegalArgumentException("The weights of pattern " + pattern + " must have " + size(pattern) + " entries!");
+                }
+                this.weights[phase][pattern] = weights[phase][pattern].clone();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries of the weight table of a pattern type, which is 3 to the power of its number of fields.
+     * @param pattern the pattern type.
+     * @return the size of the weight table of the pattern type.
+     */
+    public static int size(int pattern) {
+        return pow3(FIELDS[pattern].length);
+    }
+
+    /**
+     * Gets the phase of the game for the specified number of discs on the board.
+     * @param discs the number of discs on the board, between 4 and 64.
+     * @return the phase, between 0 and {@code PHASES - 1}.
+     */
+    public static int phase(int discs) {
+        return (discs - 4) / 5;
+    }
+
+    /**
+     * Gets the shared evaluator with the default weights.
+     * <p>
+     * The weights are loaded from the classpath resource "patterns.bin" next to this class if it exists, and are otherwise derived from the disc-square table of the heuristic (see {@link #withSquareWeights()}).
+     * @return the default evaluator.
+     */
+    public static synchronized PatternEvaluator getDefault() {
+        if (defaultEvaluator == null) {
+            PatternEvaluator evaluator = null;
+            try (InputStream in = PatternEvaluator.class.getResourceAsStream(DEFAULT_WEIGHTS)) {
+                if (in != null) {
+                    evaluator = load(in);
+                }
+            } catch (IOException e) {
+                evaluator = null;
+            }
+            defaultEvaluator = evaluator != null ? evaluator : withSquareWeights();
+        }
+        return defaultEvaluator;
+    }
+
+    /**
+     * Creates an evaluator whose weights are derived from the disc-square table of the heuristic, used as a starting point when no trained weights are available.
+     * <p>
+     * The value of each field is split evenly between all pattern copies containing it, and the fields of a corner region lose their value in the patterns where the corner is occupied, as in {@link Board#getSquareValue(int, long)}. The weights are the same in every phase.
+     * @return the evaluator with the derived weights.
+     */
+    public static PatternEvaluator withSquareWeights() {
+        int[] coverage = new int[Board.TOTALDIM];
+        for (int pattern = 0; pattern < PATTERNS; pattern++) {
+            for (int transform : TRANSFORMS[pattern]) {
+                for (int field : FIELDS[pattern]) {
+                    coverage[Symmetry.transformIndex(field, Symmetry.inverse(transform))]++;
+                }
+            }
+        }
+        short[][] patternWeights = new short[PATTERNS][];
+        for (int pattern = 0; pattern < PATTERNS; pattern++) {
+            int[] fields = FIELDS[pattern];
+            patternWeights[pattern] = new short[size(pattern)];
+            for (int index = 0; index < patternWeights[pattern].length; index++) {
+                long occupied = 0;
+                for (int k = 0, digits = index; k < fields.length; k++, digits /= 3) {
+                    if (digits % 3 != 0) {
+                        occupied |= 1L << fields[k];
+                    }
+                }
+                double weight = 0;
+                for (int k = 0, digits = index; k < fields.length; k++, digits /= 3) {
+                    int value = Board.getSquareValue(fields[k], occupied);
+                    if (digits % 3 == 1) {
+                        weight += (double) value * SCALE / coverage[fields[k]];
+                    } else if (digits % 3 == 2) {
+                        weight -= (double) value * SCALE / coverage[fields[k]];
+                    }
+                }
+                patternWeights[pattern][index] = (short) Math.round(weight);
+            }
+        }
+        short[][][] weights = new short[PHASES][][];
+        for (int phase = 0; phase < PHASES; phase++) {
+            weights[phase] = patternWeights;
+        }
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Loads an evaluator from a binary weights file written by {@link #save(OutputStream)}.
+     * @param in the input stream to read the weights from.
+     * @return the loaded evaluator.
+     * @throws IOException if the stream can't be read or doesn't contain valid weights.
+     */
+    public static PatternEvaluator load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("The input is not a pattern weights file!");
+        }
+        if (data.readInt() != PHASES || data.readInt() != PATTERNS) {
+            throw new IOException("The pattern weights file has a different number of phases or patterns!");
+        }
+        short[][][] weights = new short[PHASES][PATTERNS][];
+        for (int phase = 0; phase < PHASES; phase++) {
+            for (int pattern = 0; pattern < PATTERNS; pattern++) {
+                weights[phase][pattern] = new short[size(pattern)];
+                for (int index = 0; index < weights[phase][pattern].length; index++) {
+                    weights[phase][pattern][index] = data.readShort();
+                }
+            }
+        }
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Saves the weights of the evaluator as a compact binary file: a small header followed by the weights as 16-bit numbers, compressed with GZIP.
+     * @param out the output stream to write the weights to, which is not closed.
+     * @throws IOException if the weights can't be written.
+     */
+    public void save(OutputStream out) throws IOException {
+        GZIPOutputStream zip = new GZIPOutputStream(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(zip));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(PHASES);
+        data.writeInt(PATTERNS);
+        for (short[][] phaseWeights : weights) {
+            for (short[] patternWeights : phaseWeights) {
+                for (short weight : patternWeights) {
+                    data.writeShort(weight);
+                }
+            }
+        }
+        data.flush();
+        zip.finish();
+    }
+
+    /**
+     * Gets a weight of the evaluator.
+     * @param phase the phase of the game.
+     * @param pattern the pattern type.
+     * @param index the ternary index of the pattern, whose digits are 0 for an empty field, 1 for a field of the player to move and 2 for a field of the opponent.
+     * @return the weight.
+     */
+    public int getWeight(int phase, int pattern, int index) {
+        return weights[phase][pattern][index];
+    }
+
+    /**
+     * Evaluates a position from the point of view of the player to move.
+     * @param player the bitboard of the player to move.
+     * @param opponent the bitboard of the opponent.
+     * @return the score of the position, positive if it's good for the player to move.
+     */
+    public int evaluate(long player, long opponent) {
+        short[][] w = weights[phase(Long.bitCount(player | opponent))];
+        long mirroredPlayer = Symmetry.mirrorHorizontal(player);
+        long mirroredOpponent = Symmetry.mirrorHorizontal(opponent);
+        long transposedPlayer = Symmetry.flipDiagonal(player);
+        long transposedOpponent = Symmetry.flipDiagonal(opponent);
+        long rotatedPlayer = Symmetry.mirrorHorizontal(transposedPlayer);
+        long rotatedOpponent = Symmetry.mirrorHorizontal(transposedOpponent);
+        int score = evaluateCorner(w, player, opponent)
+                + evaluateCorner(w, mirroredPlayer, mirroredOpponent)
+                + evaluateCorner(w, Symmetry.flipVertical(player), Symmetry.flipVertical(opponent))
+                + evaluateCorner(w, Symmetry.flipVertical(mirroredPlayer), Symmetry.flipVertical(mirroredOpponent));
+        score += evaluateEdge(w, player, opponent)
+                + evaluateEdge(w, Symmetry.flipVertical(player), Symmetry.flipVertical(opponent))
+                + evaluateEdge(w, transposedPlayer, transposedOpponent)
+                + evaluateEdge(w, Symmetry.flipVertical(transposedPlayer), Symmetry.flipVertical(transposedOpponent));
+        score += evaluateCorner2x5(w, transposedPlayer, transposedOpponent)
+                + evaluateCorner2x5(w, rotatedPlayer, rotatedOpponent)
+                + evaluateCorner2x5(w, Symmetry.flipVertical(transposedPlayer), Symmetry.flipVertical(transposedOpponent))
+                + evaluateCorner2x5(w, Symmetry.flipVertical(rotatedPlayer), Symmetry.flipVertical(rotatedOpponent));
+        score += w[DIAGONAL_8][index(diagonal(player, 0), diagonal(opponent, 0))]
+                + w[DIAGONAL_8][index(diagonal(mirroredPlayer, 0), diagonal(mirroredOpponent, 0))];
+        return score;
+    }
+
+    /**
+     * Evaluates the pattern copies that start in the top-left corner of a transformed board: the 3x3 corner, the 2x5 corner and the diagonals next to the main diagonal.
+     * @param w the weights of the current phase.
+     * @param player the transformed bitboard of the player to move.
+     * @param opponent the transformed bitboard of the opponent.
+     * @return the sum of the weights of the patterns.
+     */
+    private static int evaluateCorner(short[][] w, long player, long opponent) {
+        return w[CORNER_3X3][index(corner3x3(player), corner3x3(opponent))]
+                + evaluateCorner2x5(w, player, opponent)
+                + w[DIAGONAL_7][index(diagonal(player, 1), diagonal(opponent, 1))]
+                + w[DIAGONAL_6][index(diagonal(player, 2), diagonal(opponent, 2))]
+                + w[DIAGONAL_5][index(diagonal(player, 3), diagonal(opponent, 3))]
+                + w[DIAGONAL_4][index(diagonal(player, 4), diagonal(opponent, 4))];
+    }
+
+    /**
+     * Evaluates the 2x5 corner pattern in the top-left corner of a transformed board, reading the fields along the top edge.
+     * @param w the weights of the current phase.
+     * @param player the transformed bitboard of the player to move.
+     * @param opponent the transformed bitboard of the opponent.
+     * @return the weight of the pattern.
+     */
+    private static int evaluateCorner2x5(short[][] w, long player, long opponent) {
+        return w[CORNER_2X5][index(corner2x5(player), corner2x5(opponent))];
+    }
+
+    /**
+     * Evaluates the pattern copies along the top edge of a transformed board: the edge with its X-squares and the 3 rows below it.
+     * @param w the weights of the current phase.
+     * @param player the transformed bitboard of the player to move.
+     * @param opponent the transformed bitboard of the opponent.
+     * @return the sum of the weights of the patterns.
+     */
+    private static int evaluateEdge(short[][] w, long player, long opponent) {
+        return w[EDGE_2X][index(edge2x(player), edge2x(opponent))]
+                + w[ROW_2][index(row(player, 1), row(opponent, 1))]
+                + w[ROW_3][index(row(player, 2), row(opponent, 2))]
+                + w[ROW_4][index(row(player, 3), row(opponent, 3))];
+    }
+
+    /**
+     * Computes the ternary index of a pattern.
+     * @param player the fields of the pattern owned by the player to move, as a binary number.
+     * @param opponent the fields of the pattern owned by the opponent, as a binary number.
+     * @return the ternary index of the pattern.
+     */
+    private static int index(int player, int opponent) {
+        return TERNARY[player] + 2 * TERNARY[opponent];
+    }
+
+    /**
+     * Gathers the fields of the 3x3 block in the top-left corner.
+     * @param discs the bitboard to read.
+     * @return the fields of the block as a 9-bit number.
+     */
+    private static int corner3x3(long discs) {
+        return (int) ((discs & 0x7) | ((discs >>> 5) & 0x38) | ((discs >>> 10) & 0x1C0));
+    }
+
+    /**
+     * Gathers the fields of the 2x5 block in the top-left corner.
+     * @param discs the bitboard to read.
+     * @return the fields of the block as a 10-bit number.
+     */
+    private static int corner2x5(long discs) {
+        return (int) ((discs & 0x1F) | ((discs >>> 3) & 0x3E0));
+    }
+
+    /**
+     * Gathers the fields of the top edge and its 2 X-squares.
+     * @param discs the bitboard to read.
+     * @return the fields of the pattern as a 10-bit number.
+     */
+    private static int edge2x(long discs) {
+        return (int) ((discs & 0xFF) | ((discs >>> 1) & 0x100) | ((discs >>> 5) & 0x200));
+    }
+
+    /**
+     * Gathers the fields of a row.
+     * @param discs the bitboard to read.
+     * @param row the index of the row.
+     * @return the fields of the row as an 8-bit number.
+     */
+    private static int row(long discs, int row) {
+        return (int) (discs >>> (row * Board.DIM)) & 0xFF;
+    }
+
+    /**
+     * Gathers the fields of the diagonal that starts on the top edge at the specified column and goes to the bottom-right.
+     * <p>
+     * All fields of the diagonal are in different columns, so multiplying them by a mask with one bit per row moves all of them into the last row without any carry.
+     * @param discs the bitboard to read.
+     * @param col the column of the first field of the diagonal.
+     * @return the fields of the diagonal as a number of {@code 8 - col} bits.
+     */
+    private static int diagonal(long discs, int col) {
+        long mask = (0x8040201008040201L << col) & ~(0x0101010101010101L * ((1L << col) - 1));
+        return (int) (((discs & mask) * 0x0101010101010101L) >>> (56 + col));
+    }
+
+    /**
+     * Computes 3 to the power of the specified exponent.
+     * @param exponent the exponent.
+     * @return 3 to the power of the exponent.
+     */
+    private static int pow3(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 3;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,170 @@
+package othellogame.ai;
+
+import othellogame.model.*;
+
+/**
+ * Represents a pattern-based strategy for a computer player in the Othello game.
+ * <p>
+ * The pattern strategy searches the game tree with the negamax form of the alpha-beta algorithm, like the smart strategy, but scores the positions at the leaves with a {@link PatternEvaluator} instead of the hand-weighted heuristic of the game. The evaluator only reads a few lookup tables per position, so the leaves are much cheaper to evaluate.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Strategy
+ * @see PatternEvaluator
+ * @see SmartStrategy
+ */
+public class PatternStrategy implements Strategy {
+    /**
+     * The default number of moves searched ahead.
+     */
+    public static final int DEFAULT_DEPTH = 5;
+
+    /**
+     * The score of a won game, to which the final disc difference is added so that bigger wins are preferred.
+     */
+    private static final int WIN = 1000000;
+
+    /**
+     * A score higher than any score returned by the search.
+     */
+    private static final int INFINITY = 2 * WIN;
+
+    /**
+     * The name of the pattern strategy.
+     */
+    private String name = "Pattern AI";
+
+    /**
+     * The evaluator scoring the positions at the leaves of the search.
+     */
+    private final PatternEvaluator evaluator;
+
+    /**
+     * The number of moves searched ahead.
+     */
+    private final int depth;
+
+    /**
+     * Constructs a {@code PatternStrategy} with the default evaluator and search depth.
+     */
+    public PatternStrategy() {
+        this(PatternEvaluator.getDefault(), DEFAULT_DEPTH);
+    }
+
+    /**
+     * Constructs a {@code PatternStrategy} with the specified evaluator and search depth.
+     * @param evaluator the evaluator scoring the positions at the leaves of the search.
+     * @param depth the number of moves searched ahead, at least 1.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     */
+    public PatternStrategy(PatternEvaluator evaluator, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The search depth must be at least 1!");
+        }
+        this.evaluator = evaluator;
+        this.depth = depth;
+    }
+
+    /**
+     * Gets the name of the pattern strategy.
+     * @return the name of the pattern strategy.
+     */
+    @Override
+    public String getStrategy() {
+        return name;
+    }
+
+    /**
+     * Determines the best move for the computer player by searching the valid moves with the alpha-beta algorithm.
+     * <p>
+     * Among moves with the same score, the move with the lowest index is chosen, so the result only depends on the position.
+     * @param game the current Othello game.
+     * @return the best move determined by the pattern strategy, or null if there is no valid move.
+     */
+    @Override
+    public Move determineMove(Game game) {
+        long moves = game.getValidMovesMask();
+        if (moves == 0) {
+            return null;
+        }
+        OthelloGame searchGame = game.deepCopy();
+        int bestIndex = Long.numberOfTrailingZeros(moves);
+        int alpha = -INFINITY;
+        for (; moves != 0; moves &= moves - 1) {
+            int index = Long.numberOfTrailingZeros(moves);
+            searchGame.doMove(index);
+            int score = -negamax(searchGame, depth - 1, -INFINITY, -alpha);
+            searchGame.undoMove();
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = index;
+            }
+        }
+        return OthelloMove.of(game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE, bestIndex);
+    }
+
+    /**
+     * Searches a position with the negamax form of the alpha-beta algorithm.
+     * @param game the game in the position to search, which is restored before returning.
+     * @param depth the remaining number of moves to search.
+     * @param alpha the lowest score the player to move is already sure to get.
+     * @param beta the highest score the opponent allows the player to move to get.
+     * @return the score of the position from the point of view of the player to move.
+     */
+    private int negamax(OthelloGame game, int depth, int alpha, int beta) {
+        long moves = game.getValidMovesMask();
+        if (moves == 0) {
+            game.swapTurn();
+            boolean gameOver = game.getValidMovesMask() == 0;
+            int score = gameOver ? -finalScore(game) : -negamax(game, depth, -beta, -alpha);
+            game.swapTurn();
+            return score;
+        }
+        if (depth == 0) {
+            return evaluate(game);
+        }
+        int bestScore = -INFINITY;
+        for (; moves != 0; moves &= moves - 1) {
+            game.doMove(Long.numberOfTrailingZeros(moves));
+            int score = -negamax(game, depth - 1, -beta, -alpha);
+            game.undoMove();
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Evaluates a position with the pattern evaluator.
+     * @param game the game in the position to evaluate.
+     * @return the score of the position from the point of view of the player to move.
+     */
+    private int evaluate(OthelloGame game) {
+        Mark mark = game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE;
+        Board board = game.getBoard();
+        return evaluator.evaluate(board.getDiscs(mark), board.getDiscs(mark.otherMark()));
+    }
+
+    /**
+     * Scores a finished game from the final disc difference.
+     * @param game the finished game.
+     * @return the score of the game from the point of view of the player to move.
+     */
+    private int finalScore(OthelloGame game) {
+        Mark mark = game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE;
+        Board board = game.getBoard();
+        int difference = board.countDiscs(mark) - board.countDiscs(mark.otherMark());
+        if (difference > 0) {
+            return WIN + difference;
+        } else if (difference < 0) {
+            return -WIN + difference;
+        }
+        return 0;
+    }
+}
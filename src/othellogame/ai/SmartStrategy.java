@@ -3,18 +3,92 @@ package othellogame.ai;
 import othellogame.model.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * Represents a smart strategy for a computer player in the Othello game.
  * <p>
- * The smart strategy uses the minimax algorithm with alpha-beta pruning to determine the best move based on a heuristic evaluation function.
+ * The smart strategy uses the minimax algorithm with alpha-beta pruning to determine the best move based on a heuristic evaluation function. The search is a principal variation search in negamax form: the first move of each position is searched with the full window and the others with a null window, which is searched again only when a move turns out to be better, and each iteration starts with an aspiration window around the score of the previous one.
+ * <p>
+ * The search is iterative deepening: the valid moves are searched 1 move ahead, then 2 moves ahead, and so on up to the maximum depth, and the best move of the deepest completed iteration is played. Each move has a budget of wall-clock time and of searched positions; when the budget runs out, the running iteration is abandoned, so the time spent per move stays predictable whether the position is simple or complex.
+ * <p>
+ * The searched positions are remembered in a {@link TranspositionTable}, so a position reached again by another move order with the same number of moves left to search isn't searched again. The scores are kept as whole numbers (the heuristic score in thousandths) so they can be packed into the table.
+ * <p>
+ * Alpha-beta pruning cuts off the most when the best move is searched first, so the moves of each position are ordered: the best move stored in the transposition table, then the killer moves (the last 2 moves that caused a cutoff at the same depth), then the moves with the highest history score (how often and how deep they caused cutoffs), and finally by the static priority of their field, corners first. Fastest-first ordering by the mobility left to the opponent can be enabled with {@link #setFastestFirst(boolean)}.
+ * <p>
+ * Near the end of the game, the heuristic is not needed anymore: once few enough fields are empty, the move is chosen by an {@link EndgameSolver}, which plays perfectly.
  * @author Dinh Thuy Nhat Vy
  * @version 1.0, 12/07/2023
  * @see Strategy
  * @see Move
  * @see Game
+ * @see TranspositionTable
+ * @see EndgameSolver
  */
 public class SmartStrategy implements Strategy {
+    /**
+     * The default maximum number of moves searched ahead, including the move being chosen.
+     */
+    public static final int DEFAULT_DEPTH = 6;
+
+    /**
+     * The default time budget per move in milliseconds.
+     */
+    public static final long DEFAULT_TIME_LIMIT = 1000;
+
+    /**
+     * The default number of empty fields from which the endgame is solved exactly.
+     */
+    public static final int DEFAULT_ENDGAME_EMPTIES = 16;
+
+    /**
+     * The half-width of the aspiration window around the score of the previous iteration, in thousandths of the heuristic score.
+     */
+    private static final int ASPIRATION_WINDOW = 5000;
+
+    /**
+     * The number of searched positions between 2 checks of the clock.
+     */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /**
+     * The priority of each field in the move ordering, when nothing else is known about the moves: corners first, the fields next to the corners (X-squares and C-squares) last.
+     */
+    private static final int[] SQUARE_PRIORITY = {15, 2, 10, 8, 8, 10, 2, 15,
+        2, 0, 4, 4, 4, 4, 0, 2,
+        10, 4, 7, 6, 6, 7, 4, 10,
+        8, 4, 6, 5, 5, 6, 4, 8,
+        8, 4, 6, 5, 5, 6, 4, 8,
+        10, 4, 7, 6, 6, 7, 4, 10,
+        2, 0, 4, 4, 4, 4, 0, 2,
+        15, 2, 10, 8, 8, 10, 2, 15};
+
+    /**
+     * The ordering key of the move stored in the transposition table.
+     */
+    private static final int TABLE_MOVE_KEY = Integer.MAX_VALUE;
+
+    /**
+     * The ordering key of the first killer move, the second killer move getting half of it.
+     */
+    private static final int KILLER_KEY = 1 << 30;
+
+    /**
+     * The position of the mobility term in the ordering key of fastest-first ordering, above the history and the square priority.
+     */
+    private static final int MOBILITY_SHIFT = 22;
+
+    /**
+     * The position of the history score in the ordering key, above the square priority.
+     */
+    private static final int HISTORY_SHIFT = 4;
+
+    /**
+     * The history score above which all history scores of a player are halved, so that the history never overflows into the higher terms of the ordering key.
+     */
+    private static final int HISTORY_LIMIT = 1 << 17;
+
     /**
      * The name of the smart strategy.
      */
@@ -23,14 +97,95 @@ public class SmartStrategy implements Strategy {
     /**
      * The maximum value used in the minimax algorithm for scoring purpose.
      */
-    private final double MAX = 1000000;
+    private final int MAX = 1000000000;
+
+    /**
+     * The factor applied to the heuristic score, so that the search works with whole numbers that fit in the transposition table.
+     */
+    private static final int SCALE = 1000;
+
+    /**
+     * The maximum number of moves searched ahead, including the move being chosen.
+     */
+    private final int maxDepth;
+
+    /**
+     * The time budget per move in milliseconds, or 0 for no time limit.
+     */
+    private final long timeLimit;
+
+    /**
+     * The maximum number of positions searched per move, or 0 for no limit.
+     */
+    private final long nodeLimit;
+
+    /**
+     * The transposition table remembering the searched positions, kept from one move to the next.
+     */
+    private final TranspositionTable table = new TranspositionTable();
+
+    /**
+     * Whether the moves are ordered fastest-first, by the number of moves they leave to the opponent.
+     */
+    private volatile boolean fastestFirst;
+
+    /**
+     * The number of threads searching each move.
+     */
+    private volatile int threads = 1;
+
+    /**
+     * The pool scoring the root moves in parallel, or null to score them one after another.
+     */
+    private volatile ForkJoinPool rootPool;
+
+    /**
+     * The number of empty fields from which the endgame is solved exactly, or 0 to never solve it.
+     */
+    private volatile int endgameEmpties = DEFAULT_ENDGAME_EMPTIES;
+
+    /**
+     * The solver of the endgame, created the first time an endgame is reached.
+     */
+    private EndgameSolver solver;
 
     /**
-     * Default constructor for the {@code SmartStrategy} class.
+     * The depth of the deepest iteration completed by the last search.
+     */
+    private volatile int lastDepth;
+
+    /**
+     * The number of positions visited by the last search.
+     */
+    private volatile long lastNodes;
+
+    /**
+     * Constructs a {@code SmartStrategy} with the default maximum depth and time budget, and no limit on the number of searched positions.
+     */
+    public SmartStrategy() {
+        this(DEFAULT_DEPTH, DEFAULT_TIME_LIMIT, 0);
+    }
+
+    /**
+     * Constructs a {@code SmartStrategy} with the specified search budget.
      * <p>
-     * Note: this constructor is automatically generated by the compiler and is not intended for direct use.
+     * The first iteration is always completed, so a move is found even with a very small budget.
+     * @param maxDepth the maximum number of moves searched ahead, including the move being chosen, at least 1.
+     * @param timeLimit the time budget per move in milliseconds, or 0 for no time limit.
+     * @param nodeLimit the maximum number of positions searched per move, or 0 for no limit.
+     * @throws IllegalArgumentException if the depth is less than 1 or a limit is negative.
      */
-    public SmartStrategy() {}
+    public SmartStrategy(int maxDepth, long timeLimit, long nodeLimit) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("The search depth must be at least 1!");
+        }
+        if (timeLimit < 0 || nodeLimit < 0) {
+            throw new IllegalArgumentException("The search limits cannot be negative!");
+        }
+        this.maxDepth = maxDepth;
+        this.timeLimit = timeLimit;
+        this.nodeLimit = nodeLimit;
+    }
 
     /**
      * Gets the name of the smart strategy.
@@ -42,121 +197,627 @@ public class SmartStrategy implements Strategy {
     }
 
     /**
-     * Determines the best move for the computer player using the minimax algorithm with alpha-beta pruning.
+     * Sets whether the moves are ordered fastest-first.
+     * <p>
+     * Fastest-first ordering tries first the moves leaving the fewest moves to the opponent, after the move of the transposition table and the killer moves. It usually prunes more of the tree, but costs a move generation for every move to order, so it's only applied to positions with at least 2 moves left to search.
+     * @param fastestFirst true to order the moves fastest-first, false to order them by history and square priority only.
+     */
+    public void setFastestFirst(boolean fastestFirst) {
+        this.fastestFirst = fastestFirst;
+    }
+
+    /**
+     * Sets the number of threads searching each move.
+     * <p>
+     * With more than 1 thread, the search is a lazy SMP search: helper threads search the same root position as the main thread, at staggered depths and starting with different root moves, and share the transposition table with it. The helpers fill the table with results the main thread then reuses, so the main thread completes its iterations sooner. Only the main thread decides the move, so the move is the same as with a single thread for the same completed depth. The node limit applies to the positions searched by all threads together.
+     * @param threads the number of threads, at least 1 (1 by default).
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1!");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the pool in which the root moves are scored in parallel.
+     * <p>
+     * With a pool, each iteration scores every root move in its own fork-join task, on its own copy of the game. The tasks share the best score found so far and search their move with a window just below it (just above it for the minimizing player), so a move that can't beat the best move is cut off early. A move that could still be the best move, including a move with the same score and a higher index, is always scored exactly, so the chosen move is exactly the same as without a pool.
+     * <p>
+     * The pool is also used by the {@link EndgameSolver}, which splits the endgame tree between its threads.
+     * @param pool the pool running the root tasks, for example {@link ForkJoinPool#commonPool()}, or null to score the root moves one after another (the default).
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        this.rootPool = pool;
+    }
+
+    /**
+     * Sets the number of empty fields from which the endgame is solved exactly.
+     * <p>
+     * When the number of empty fields is at most this threshold, the move is chosen by an {@link EndgameSolver}, which finds the move with the best final disc difference under perfect play instead of trusting the heuristic. The solver gets half of the time budget; if it can't solve the position in time, the move is chosen by the normal search with the rest of the budget.
+     * @param endgameEmpties the number of empty fields, or 0 to never solve the endgame (16 by default).
+     * @throws IllegalArgumentException if the number of empty fields is negative.
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        if (endgameEmpties < 0) {
+            throw new IllegalArgumentException("The number of empty fields cannot be negative!");
+        }
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Gets the depth of the deepest iteration completed by the last call to {@link #determineMove(Game)}.
+     * @return the number of moves searched ahead for the last move, or 0 if no search was run.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Gets the number of positions visited by the last call to {@link #determineMove(Game)}, by all threads together.
+     * @return the number of searched positions for the last move.
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Determines the best move for the computer player using iterative deepening and principal variation search.
+     * <p>
+     * Each thread works on its own copy of the game, executing and undoing the moves on it instead of copying the game for each move, and iterates the valid moves as a bitboard, so it doesn't allocate any object per node.
+     * <p>
+     * When an unfinished endgame solve comes first, it shares the time and node budget of the move with the search: the solve gets up to half of the time, and the search only the time and positions the solve left over.
      * @param game the current Othello game.
-     * @return the best move determined by the smart strategy.
+     * @return the best move determined by the smart strategy, or null if there is no valid move.
      */
     @Override
     public Move determineMove(Game game) {
         OthelloGame othelloGame = (OthelloGame) game;
-        double bestScore;
-        Move bestMove = null;
-        List<Move> moveList = othelloGame.getValidMoves();
-        if (game.isFirstPlayerTurn()) {
-            bestScore = -MAX;
-            for (Move currentMove : moveList) {
-                OthelloGame copiedGame = othelloGame.deepCopy();
-                copiedGame.doMove(currentMove);
-                double currentScore = miniMax(copiedGame, 0, false);
-                if (currentScore >= bestScore) {
-                    bestScore = currentScore;
-                    bestMove = currentMove;
+        long moves = othelloGame.getValidMovesMask();
+        lastDepth = 0;
+        lastNodes = 0;
+        if (moves == 0) {
+            return null;
+        }
+        int bestIndex = Long.numberOfTrailingZeros(moves);
+        Mark mark = game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE;
+        Board board = othelloGame.getBoard();
+        int empties = board.countDiscs(Mark.EMPTY);
+        long start = System.nanoTime();
+        long deadline = timeLimit == 0 ? 0 : start + timeLimit * 1000000;
+        long solverNodes = 0;
+        if ((moves & (moves - 1)) != 0 && empties <= endgameEmpties) {
+            if (solver == null) {
+                solver = new EndgameSolver();
+            }
+            solver.setForkJoinPool(rootPool);
+            long solverDeadline = timeLimit == 0 ? 0 : start + timeLimit * 500000;
+            solver.solve(board.getDiscs(mark), board.getDiscs(mark.otherMark()), solverDeadline, nodeLimit);
+            solverNodes = solver.getNodes();
+            if (!solver.isStopped()) {
+                lastDepth = empties;
+                lastNodes = solverNodes;
+                return OthelloMove.of(mark, solver.getBestMove());
+            }
+        }
+        if ((moves & (moves - 1)) != 0) {
+            table.newSearch();
+            AtomicLong sharedNodes = new AtomicLong(solverNodes);
+            Search search = new Search(othelloGame.deepCopy(), 0, deadline, sharedNodes);
+            Search[] helpers = new Search[threads - 1];
+            Thread[] helperThreads = new Thread[threads - 1];
+            for (int i = 0; i < helpers.length; i++) {
+                Search helper = new Search(othelloGame.deepCopy(), i + 1, deadline, sharedNodes);
+                helpers[i] = helper;
+                helperThreads[i] = new Thread(() -> helper.runHelper(moves), "Smart AI helper " + helper.searchIndex);
+                helperThreads[i].setDaemon(true);
+                helperThreads[i].start();
+            }
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                int index = search.searchRoot(moves, depth);
+                if (search.stopped) {
+                    break;
+                }
+                bestIndex = index;
+                lastDepth = depth;
+                if (Math.abs(search.rootScore) == MAX) {
+                    break;
                 }
             }
-        } else {
-            bestScore = MAX;
-            for (Move currentMove : moveList) {
-                OthelloGame copiedGame = othelloGame.deepCopy();
-                copiedGame.doMove(currentMove);
-                double currentScore = miniMax(copiedGame, 0, true);
-                if (currentScore <= bestScore) {
-                    bestScore = currentScore;
-                    bestMove = currentMove;
+            long totalNodes = solverNodes + search.nodes;
+            for (int i = 0; i < helpers.length; i++) {
+                helpers[i].halted = true;
+                try {
+                    helperThreads[i].join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
+                totalNodes += helpers[i].nodes;
             }
+            lastNodes = totalNodes;
         }
-        return bestMove;
+        return OthelloMove.of(mark, bestIndex);
     }
 
     /**
-     * Calculate the heuristic score for the given game.
-     * @param game the current Othello game.
-     * @return the heuristic score.
+     * Represents a single search for the best move, with its own copy of the game, its own move ordering state and its own budget.
+     * <p>
+     * The main search of a move has index 0 and obeys the budget; the helpers of a lazy SMP search have higher indexes and run until they're halted by the main search. The positions visited by the main search and its helpers all count towards the node limit.
+     * @author Dinh Thuy Nhat Vy
+     * @version 1.0, 12/07/2023
+     * @see SmartStrategy
      */
-    private double heuristic(Game game) {
-        double totalScore;
-        totalScore = game.calculateHeuristicScore();
-        return totalScore;
-    }
+    private final class Search {
+        /**
+         * The copy of the game on which the moves are executed and undone.
+         */
+        private final OthelloGame game;
 
-    /**
-     * Executes the minimax algorithm with alpha-beta pruning.
-     * @param game the current Othello game.
-     * @param depth the current depth in the search tree.
-     * @param maximizingPlayer indicates whether the player is maximizing or minimizing.
-     * @return the score of the best move.
-     */
-    private double miniMax(Game game, int depth, boolean maximizingPlayer) {
-        return alphaBeta(game, depth, -MAX, MAX, maximizingPlayer);
-    }
+        /**
+         * The index of the search: 0 for the main search, higher for the helpers.
+         */
+        private final int searchIndex;
 
-    /**
-     * Executes the minimax algorithm with alpha-beta pruning.
-     * @param game the current Othello game.
-     * @param depth the current depth in the search tree.
-     * @param a the alpha value.
-     * @param b the beta value.
-     * @param maximizingPlayer indicates whether the player is maximizing or minimizing.
-     * @return the score of the best move.
-     */
-    private double alphaBeta(Game game, int depth, double a, double b, boolean maximizingPlayer) {
-        if (depth == 5) {
-            return heuristic(game);
-        }
-        if (game.isGameOver()) {
-            if (game.getWinner() == Mark.BLACK) {
-                return MAX;
-            } else if (game.getWinner() == Mark.WHITE) {
-                return -MAX;
+        /**
+         * The value of {@link System#nanoTime()} at which the search must stop, or 0 for no time limit.
+         */
+        private final long deadline;
+
+        /**
+         * The number of positions visited so far.
+         */
+        private long nodes;
+
+        /**
+         * The number of positions visited by the main search, its root tasks and its helpers together, shared by all of them.
+         */
+        private final AtomicLong sharedNodes;
+
+        /**
+         * The number of positions of {@link #nodes} already added to {@link #sharedNodes}.
+         */
+        private long reportedNodes;
+
+        /**
+         * The value of {@link #sharedNodes} after the last positions were added to it.
+         */
+        private long sharedTotal;
+
+        /**
+         * The depth at which the positions are scored with the heuristic in the current iteration.
+         */
+        private int horizon;
+
+        /**
+         * Whether the budget ran out during the current iteration, which makes its result unusable.
+         */
+        private boolean stopped;
+
+        /**
+         * Whether the main search asked this helper to stop.
+         */
+        private volatile boolean halted;
+
+        /**
+         * The score of the best move found by the last iteration.
+         */
+        private int rootScore;
+
+        /**
+         * The score of the best move of the previous iteration searched by {@link #searchRoot(long, int)}, from the point of view of the player to move at the root.
+         */
+        private int previousScore;
+
+        /**
+         * The index of the best move of the previous iteration searched by {@link #searchRoot(long, int)}, or -1 before the first iteration.
+         */
+        private int previousIndex = -1;
+
+        /**
+         * The 2 killer moves of each depth, the most recent first, or {@link TranspositionTable#NO_MOVE}.
+         */
+        private final int[][] killers;
+
+        /**
+         * The history scores of the moves of each player, indexed by the player index and the field.
+         */
+        private final int[][] history = new int[2][Board.TOTALDIM];
+
+        /**
+         * The ordered moves of the position at each depth.
+         */
+        private final int[][] moveLists;
+
+        /**
+         * The ordering keys of the moves of the position at each depth.
+         */
+        private final int[][] keyLists;
+
+        /**
+         * Constructs a {@code Search} on the specified copy of the game.
+         * @param game the copy of the game to search.
+         * @param searchIndex the index of the search: 0 for the main search and its root tasks, higher for the helpers.
+         * @param deadline the value of {@link System#nanoTime()} at which the search must stop, or 0 for no time limit.
+         * @param sharedNodes the number of positions visited for the move by the endgame solver, the main search, its root tasks and its helpers together.
+         */
+        private Search(OthelloGame game, int searchIndex, long deadline, AtomicLong sharedNodes) {
+            this.game = game;
+            this.searchIndex = searchIndex;
+            this.sharedNodes = sharedNodes;
+            this.sharedTotal = sharedNodes.get();
+            this.killers = new int[maxDepth][2];
+            this.moveLists = new int[maxDepth][Board.TOTALDIM];
+            this.keyLists = new int[maxDepth][Board.TOTALDIM];
+            for (int[] depthKillers : killers) {
+                Arrays.fill(depthKillers, TranspositionTable.NO_MOVE);
+            }
+            this.deadline = deadline;
+        }
+
+        /**
+         * Runs the iterations of a helper until it reaches the maximum depth or is halted.
+         * <p>
+         * Half of the helpers start 1 move deeper than the main search, so the helpers keep filling the table ahead of it.
+         * @param moves the bitboard of the valid moves of the root position.
+         */
+        private void runHelper(long moves) {
+            for (int depth = 1 + searchIndex % 2; depth <= maxDepth && !stopped; depth++) {
+                searchRoot(moves, depth);
+            }
+        }
+
+        /**
+         * Searches the valid moves of the root position to the specified depth with principal variation search.
+         * <p>
+         * The main search starts with the best move of the previous iteration, searched with an aspiration window around the previous score, and searched again with the full window if its score falls outside. Every other move is first tested with a null window, which only tells whether it can beat the best move so far (or tie with it, if its index is higher), and is only searched again for its exact score if it can. The chosen move is the same as if every move were searched with the full window.
+         * <p>
+         * Only the first iteration ignores the budget, so there is always a completed iteration to take the move from. Each helper of a lazy SMP search starts with a different move, so the threads don't all search the same subtrees at the same time.
+         * @param moves the bitboard of the valid moves of the root position.
+         * @param depth the number of moves searched ahead, including the move being chosen.
+         * @return the index of the best move, or of the move with the highest index if several moves are equally good.
+         */
+        private int searchRoot(long moves, int depth) {
+            horizon = depth - 1;
+            ForkJoinPool pool = rootPool;
+            if (pool != null && searchIndex == 0) {
+                return splitRoot(moves, pool);
+            }
+            int count = Long.bitCount(moves);
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++, moves &= moves - 1) {
+                order[i] = Long.numberOfTrailingZeros(moves);
+            }
+            int first = 0;
+            if (searchIndex != 0) {
+                first = searchIndex % count;
             } else {
-                return 0;
+                while (first < count - 1 && order[first] != previousIndex) {
+                    first++;
+                }
+                if (order[first] != previousIndex) {
+                    first = 0;
+                }
             }
+            int bestScore = -MAX - 1;
+            int bestIndex = -1;
+            for (int i = 0; i < count; i++) {
+                int index = order[(first + i) % count];
+                game.doMove(index);
+                int currentScore;
+                if (i == 0) {
+                    int alpha = -MAX - 1;
+                    int beta = MAX + 1;
+                    if (previousIndex != -1 && Math.abs(previousScore) < MAX) {
+                        alpha = previousScore - ASPIRATION_WINDOW;
+                        beta = previousScore + ASPIRATION_WINDOW;
+                    }
+                    currentScore = -pvs(0, -beta, -alpha);
+                    if (currentScore <= alpha || currentScore >= beta) {
+                        currentScore = -pvs(0, -MAX - 1, MAX + 1);
+                    }
+                } else {
+                    int alpha = index > bestIndex ? bestScore - 1 : bestScore;
+                    currentScore = -pvs(0, -alpha - 1, -alpha);
+                    if (currentScore > alpha) {
+                        currentScore = -pvs(0, -MAX - 1, -alpha);
+                    }
+                }
+                game.undoMove();
+                if (stopped) {
+                    return -1;
+                }
+                if (currentScore > bestScore || (currentScore == bestScore && index > bestIndex)) {
+                    bestScore = currentScore;
+                    bestIndex = index;
+                }
+            }
+            rootScore = bestScore;
+            previousScore = bestScore;
+            previousIndex = bestIndex;
+            return bestIndex;
         }
-        double bestScore;
-        List<Move> moveList = game.getValidMoves();
-        if (maximizingPlayer) {
-            bestScore = -MAX;
-            if (moveList.isEmpty()) {
-                game.swapTurn();
-                return alphaBeta(game, depth + 1, a, b, false);
-            }
-            for (Move currentMove : moveList) {
-                Game copiedGame = game.deepCopy();
-                copiedGame.doMove(currentMove);
-                double currentScore = alphaBeta(copiedGame, depth + 1, a, b, false);
-                bestScore = Math.max(bestScore, currentScore);
-                a = Math.max(a, currentScore);
-                if (a >= b) {
-                    break;
+
+        /**
+         * Scores the valid moves of the root position in parallel fork-join tasks, for the current iteration.
+         * <p>
+         * The tasks add the positions they search to the counter shared with the main search, like the helpers do, so the node budget applies to the iteration as a whole and each task may search up to {@link #CLOCK_INTERVAL} positions more than the budget allows.
+         * @param moves the bitboard of the valid moves of the root position.
+         * @param pool the pool running the tasks.
+         * @return the index of the best move, or of the move with the highest index if several moves are equally good.
+         */
+        private int splitRoot(long moves, ForkJoinPool pool) {
+            AtomicInteger bestBound = new AtomicInteger(-MAX);
+            int count = Long.bitCount(moves);
+            int[] indexes = new int[count];
+            Search[] tasks = new Search[count];
+            List<ForkJoinTask<Integer>> results = new ArrayList<>(count);
+            reportNodes();
+            for (int i = 0; i < count; i++, moves &= moves - 1) {
+                int index = Long.numberOfTrailingZeros(moves);
+                Search task = new Search(game.deepCopy(), searchIndex, deadline, sharedNodes);
+                task.horizon = horizon;
+                task.sharedTotal = sharedTotal;
+                indexes[i] = index;
+                tasks[i] = task;
+                results.add(pool.submit(() -> task.scoreRootMove(index, bestBound)));
+            }
+            int bestScore = -MAX - 1;
+            int bestIndex = -1;
+            for (int i = 0; i < count; i++) {
+                int currentScore = results.get(i).join();
+                tasks[i].reportNodes();
+                nodes += tasks[i].nodes;
+                reportedNodes += tasks[i].nodes;
+                stopped |= tasks[i].stopped;
+                if (currentScore > bestScore || (currentScore == bestScore && indexes[i] > bestIndex)) {
+                    bestScore = currentScore;
+                    bestIndex = indexes[i];
+                }
+            }
+            sharedTotal = sharedNodes.get();
+            if (stopped) {
+                return -1;
+            }
+            rootScore = bestScore;
+            return bestIndex;
+        }
+
+        /**
+         * Scores a root move in a fork-join task, with a window just below the best score found so far by the other tasks.
+         * <p>
+         * A move whose score can't reach the best score fails low and gets a score worse than the best score, while a move which could be chosen gets its exact score.
+         * @param index the index of the root move.
+         * @param bestBound the best score found so far by all tasks of the iteration, from the point of view of the player to move at the root.
+         * @return the score of the move, from the point of view of the player to move at the root.
+         */
+        private int scoreRootMove(int index, AtomicInteger bestBound) {
+            game.doMove(index);
+            int score = -pvs(0, -MAX - 1, -(bestBound.get() - 1));
+            game.undoMove();
+            if (!stopped) {
+                bestBound.accumulateAndGet(score, Math::max);
+            }
+            return score;
+        }
+
+        /**
+         * Checks whether the budget of the search has run out, and stops the search if so.
+         * <p>
+         * The clock is only read every {@link #CLOCK_INTERVAL} positions, as reading it is much slower than searching a position. The positions are added to the counter shared with the other threads at the same time, so the threads don't contend for it at every position; a search on its own stops exactly at the node limit, while with helpers or root tasks each thread may search up to {@link #CLOCK_INTERVAL} positions more before it sees that the limit is reached.
+         * @return true if the search is stopped, false otherwise.
+         */
+        private boolean checkBudget() {
+            if (stopped) {
+                return true;
+            }
+            long unreportedNodes = nodes - reportedNodes;
+            if (unreportedNodes >= CLOCK_INTERVAL) {
+                reportNodes();
+                unreportedNodes = 0;
+                if (searchIndex == 0 && deadline != 0 && System.nanoTime() - deadline >= 0) {
+                    stopped = true;
+                }
+            }
+            if ((nodeLimit != 0 && sharedTotal + unreportedNodes >= nodeLimit) || (searchIndex != 0 && halted)) {
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        /**
+         * Adds the positions visited since the last report to the counter shared with the other threads, and reads the new total.
+         */
+        private void reportNodes() {
+            sharedTotal = sharedNodes.addAndGet(nodes - reportedNodes);
+            reportedNodes = nodes;
+        }
+
+        /**
+         * Fills the move list of a depth with the valid moves of the position and their ordering keys.
+         * @param moves the bitboard of the valid moves.
+         * @param depth the current depth in the search tree.
+         * @param draft the number of moves left to search from the position.
+         * @param tableMove the best move stored in the transposition table for the position, or {@link TranspositionTable#NO_MOVE}.
+         * @return the number of moves in the list.
+         */
+        private int orderMoves(long moves, int depth, int draft, int tableMove) {
+            int[] moveList = moveLists[depth];
+            int[] keyList = keyLists[depth];
+            int[] sideHistory = history[game.isFirstPlayerTurn() ? 0 : 1];
+            boolean mobilityOrdering = fastestFirst && draft >= 2;
+            long player = 0;
+            long opponent = 0;
+            if (mobilityOrdering) {
+                Board board = game.getBoard();
+                Mark mark = game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE;
+                player = board.getDiscs(mark);
+                opponent = board.getDiscs(mark.otherMark());
+            }
+            int count = 0;
+            for (; moves != 0; moves &= moves - 1) {
+                int index = Long.numberOfTrailingZeros(moves);
+                int key;
+                if (index == tableMove) {
+                    key = TABLE_MOVE_KEY;
+                } else if (index == killers[depth][0]) {
+                    key = KILLER_KEY;
+                } else if (index == killers[depth][1]) {
+                    key = KILLER_KEY >> 1;
+                } else {
+                    key = (sideHistory[index] << HISTORY_SHIFT) + SQUARE_PRIORITY[index];
+                    if (mobilityOrdering) {
+                        long flips = BitBoard.computeFlips(index, player, opponent);
+                        long opponentMoves = BitBoard.generateMoves(opponent & ~flips, player | flips | (1L << index));
+                        key += (Board.TOTALDIM - Long.bitCount(opponentMoves)) << MOBILITY_SHIFT;
+                    }
                 }
+                moveList[count] = index;
+                keyList[count] = key;
+                count++;
             }
-        } else {
-            bestScore = MAX;
-            if (moveList.isEmpty()) {
+            return count;
+        }
+
+        /**
+         * Selects the next move to search from the move list of a depth, moving the remaining move with the highest ordering key to the specified position.
+         * @param depth the current depth in the search tree.
+         * @param position the position in the move list of the next move.
+         * @param count the number of moves in the list.
+         * @return the index of the next move.
+         */
+        private int nextMove(int depth, int position, int count) {
+            int[] moveList = moveLists[depth];
+            int[] keyList = keyLists[depth];
+            int best = position;
+            for (int i = position + 1; i < count; i++) {
+                if (keyList[i] > keyList[best]) {
+                    best = i;
+                }
+            }
+            int move = moveList[best];
+            int key = keyList[best];
+            moveList[best] = moveList[position];
+            keyList[best] = keyList[position];
+            moveList[position] = move;
+            keyList[position] = key;
+            return move;
+        }
+
+        /**
+         * Records a move that caused a cutoff, as a killer move of its depth and in the history of the player to move.
+         * @param index the index of the move.
+         * @param depth the current depth in the search tree.
+         * @param draft the number of moves left to search from the position.
+         */
+        private void recordCutoff(int index, int depth, int draft) {
+            int[] depthKillers = killers[depth];
+            if (depthKillers[0] != index) {
+                depthKillers[1] = depthKillers[0];
+                depthKillers[0] = index;
+            }
+            int[] sideHistory = history[game.isFirstPlayerTurn() ? 0 : 1];
+            sideHistory[index] += draft * draft;
+            if (sideHistory[index] > HISTORY_LIMIT) {
+                for (int i = 0; i < sideHistory.length; i++) {
+                    sideHistory[i] >>= 1;
+                }
+            }
+        }
+
+        /**
+         * Calculate the heuristic score for the given game.
+         * @return the heuristic score, in thousandths, from the point of view of the player to move.
+         */
+        private int heuristic() {
+            double totalScore;
+            totalScore = game.calculateHeuristicScore();
+            int score = (int) Math.round(totalScore * SCALE);
+            return game.isFirstPlayerTurn() ? score : -score;
+        }
+
+        /**
+         * Executes the principal variation search, the negamax form of the minimax algorithm with alpha-beta pruning where all moves but the first are tested with a null window.
+         * <p>
+         * The first move, which the move ordering expects to be the best, is searched with the full window. Every other move is searched with a null window just above alpha, which is cheaper as it only proves whether the move is better than alpha; a move that turns out to be better is searched again with the full window for its exact score. The results are the same as with plain alpha-beta pruning.
+         * <p>
+         * The result of each searched position is stored in the transposition table. A stored result is only reused for a position searched to the same depth, so every score is the same as without the table and the chosen move doesn't depend on what the table contains.
+         * <p>
+         * Once the budget has run out (never during the first iteration), the search returns 0 at every position without searching further, and the result of the iteration is discarded.
+         * @param depth the current depth in the search tree.
+         * @param alpha the lowest score the player to move is already sure to get.
+         * @param beta the highest score the opponent allows the player to move to get.
+         * @return the score of the position from the point of view of the player to move.
+         */
+        private int pvs(int depth, int alpha, int beta) {
+            nodes++;
+            if (horizon > 0 && checkBudget()) {
+                return 0;
+            }
+            if (depth == horizon) {
+                return heuristic();
+            }
+            if (game.isGameOver()) {
+                Mark winner = game.getWinner();
+                if (winner == Mark.EMPTY) {
+                    return 0;
+                }
+                return (winner == Mark.BLACK) == game.isFirstPlayerTurn() ? MAX : -MAX;
+            }
+            long moves = game.getValidMovesMask();
+            if (moves == 0) {
                 game.swapTurn();
-                return alphaBeta(game, depth + 1, a, b, true);
-            }
-            for (Move currentMove : moveList) {
-                Game copiedGame = game.deepCopy();
-                copiedGame.doMove(currentMove);
-                double currentScore = alphaBeta(copiedGame, depth + 1, a, b, true);
-                bestScore = Math.min(bestScore, currentScore);
-                b = Math.min(b, currentScore);
-                if (a >= b) {
-                    break;
+                int passScore = -pvs(depth + 1, -beta, -alpha);
+                game.swapTurn();
+                return passScore;
+            }
+            int draft = horizon - depth;
+            long hash = game.getHash();
+            long entry = table.probe(hash);
+            if (entry != 0 && TranspositionTable.depth(entry) == draft) {
+                int bound = TranspositionTable.bound(entry);
+                int score = TranspositionTable.score(entry);
+                if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+            int tableMove = entry != 0 ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE;
+            int count = orderMoves(moves, depth, draft, tableMove);
+            int originalAlpha = alpha;
+            int bestScore = -MAX - 1;
+            int bestMove = TranspositionTable.NO_MOVE;
+            for (int i = 0; i < count; i++) {
+                int index = nextMove(depth, i, count);
+                game.doMove(index);
+                int currentScore;
+                if (i == 0) {
+                    currentScore = -pvs(depth + 1, -beta, -alpha);
+                } else {
+                    currentScore = -pvs(depth + 1, -alpha - 1, -alpha);
+                    if (currentScore > alpha && currentScore < beta) {
+                        currentScore = -pvs(depth + 1, -beta, -alpha);
+                    }
                 }
+                game.undoMove();
+                if (currentScore > bestScore) {
+                    bestScore = currentScore;
+                    bestMove = index;
+                    if (currentScore > alpha) {
+                        alpha = currentScore;
+                        if (alpha >= beta) {
+                            recordCutoff(index, depth, draft);
+                            break;
+                        }
+                    }
+                }
+            }
+            if (!stopped) {
+                int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                        : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+                table.store(hash, draft, bound, bestScore, bestMove);
             }
+            return bestScore;
         }
-        return bestScore;
     }
-}
\ No newline at end of file
+}
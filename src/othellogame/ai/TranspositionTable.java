@@ -0,0 +1,212 @@
+package othellogame.ai;
+
+import java.util.*;
+
+/**
+ * Represents a fixed-size transposition table, which remembers the results of searched positions by their Zobrist hash.
+ * <p>
+ * In Othello, the same position is often reached by different move orders. The table stores, for each searched position, the depth it was searched to, its score, whether the score is exact or only a bound, and the best move found, so the search can reuse the result instead of searching the position again.
+ * <p>
+ * The table is a single preallocated {@code long} array, split into buckets of 2 entries: the first entry keeps the deepest result (unless it's from an older search, or the same position is searched again), and the second entry always takes the newest result. An entry is 2 longs: the packed result, and the hash XOR the packed result. A reader only accepts an entry whose 2 longs match its hash, so an entry being written by another thread at the same time is seen as a miss instead of a wrong result, and the table can be shared by several search threads without locks.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see SmartStrategy
+ */
+public final class TranspositionTable {
+    /**
+     * The bound type of an exact score.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The bound type of a score which is a lower bound of the exact score (the search failed high).
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * The bound type of a score which is an upper bound of the exact score (the search failed low).
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * The move of an entry without a best move.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * The default size of a table in megabytes.
+     */
+    public static final int DEFAULT_SIZE = 8;
+
+    /**
+     * The maximum depth that can be stored.
+     */
+    public static final int MAX_DEPTH = 255;
+
+    /**
+     * The number of longs of a bucket: 2 entries of 2 longs.
+     */
+    private static final int BUCKET_LONGS = 4;
+
+    /**
+     * The position of the move in a packed entry, stored plus 1 in 7 bits so that 0 means no move.
+     */
+    private static final int MOVE_SHIFT = 32;
+
+    /**
+     * The position of the depth in a packed entry, stored in 8 bits.
+     */
+    private static final int DEPTH_SHIFT = 39;
+
+    /**
+     * The position of the bound type in a packed entry, stored in 2 bits.
+     */
+    private static final int BOUND_SHIFT = 47;
+
+    /**
+     * The position of the generation in a packed entry, stored in the 15 remaining bits.
+     */
+    private static final int GENERATION_SHIFT = 49;
+
+    /**
+     * The entries of the table.
+     */
+    private final long[] entries;
+
+    /**
+     * The mask selecting the bucket of a hash.
+     */
+    private final int bucketMask;
+
+    /**
+     * The generation of the current search, which makes the entries of older searches replaceable.
+     */
+    private volatile int generation;
+
+    /**
+     * Constructs a {@code TranspositionTable} of the default size.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructs a {@code TranspositionTable} of the specified size, rounded down to a power of 2 buckets.
+     * @param megabytes the size of the table in megabytes, between 1 and 1024.
+     * @throws IllegalArgumentException if the size is out of range.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > 1024) {
+            throw new IllegalArgumentException("The size of the table must be between 1 and 1024 megabytes!");
+        }
+        int buckets = Integer.highestOneBit(megabytes * (1 << 20) / (BUCKET_LONGS * Long.BYTES));
+        this.entries = new long[buckets * BUCKET_LONGS];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Gets the number of entries of the table.
+     * @return the number of positions the table can hold.
+     */
+    public int capacity() {
+        return entries.length / 2;
+    }
+
+    /**
+     * Starts a new search, making the entries of the previous searches replaceable by shallower results.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0x7FFF;
+    }
+
+    /**
+     * Removes all entries of the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * Looks up the entry of a position.
+     * @param hash the Zobrist hash of the position.
+     * @return the packed entry of the position, to be read with {@link #depth(long)}, {@link #bound(long)}, {@link #score(long)} and {@link #move(long)}, or 0 if the position is not in the table.
+     */
+    public long probe(long hash) {
+        int bucket = ((int) hash & bucketMask) * BUCKET_LONGS;
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += 2) {
+            long data = entries[slot + 1];
+            if ((entries[slot] ^ data) == hash && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of a search of a position.
+     * <p>
+     * When the result has no best move, the best move of an earlier entry of the same position is kept.
+     * @param hash the Zobrist hash of the position.
+     * @param depth the depth the position was searched to, between 0 and {@link #MAX_DEPTH}.
+     * @param bound the bound type of the score: {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     * @param score the score of the position.
+     * @param move the index of the best move, or {@link #NO_MOVE}.
+     */
+    public void store(long hash, int depth, int bound, int score, int move) {
+        int bucket = ((int) hash & bucketMask) * BUCKET_LONGS;
+        long deepData = entries[bucket + 1];
+        boolean sameDeep = (entries[bucket] ^ deepData) == hash && deepData != 0;
+        if (move == NO_MOVE) {
+            long oldData = sameDeep ? deepData : probe(hash);
+            move = oldData != 0 ? move(oldData) : NO_MOVE;
+        }
+        int currentGeneration = generation;
+        long data = (score & 0xFFFFFFFFL)
+                | ((long) (move + 1) << MOVE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentGeneration << GENERATION_SHIFT);
+        int slot = bucket + 2;
+        if (deepData == 0 || sameDeep || depth >= depth(deepData) || (int) (deepData >>> GENERATION_SHIFT) != currentGeneration) {
+            slot = bucket;
+        }
+        entries[slot] = hash ^ data;
+        entries[slot + 1] = data;
+    }
+
+    /**
+     * Gets the depth of a packed entry.
+     * @param entry the packed entry returned by {@link #probe(long)}.
+     * @return the depth the position was searched to.
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Gets the bound type of a packed entry.
+     * @param entry the packed entry returned by {@link #probe(long)}.
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /**
+     * Gets the score of a packed entry.
+     * @param entry the packed entry returned by {@link #probe(long)}.
+     * @return the score of the position, to be read according to the bound type.
+     */
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Gets the best move of a packed entry.
+     * @param entry the packed entry returned by {@link #probe(long)}.
+     * @return the index of the best move, or {@link #NO_MOVE}.
+     */
+    public static int move(long entry) {
+        return ((int) (entry >>> MOVE_SHIFT) & 0x7F) - 1;
+    }
+}
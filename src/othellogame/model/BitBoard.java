@@ -0,0 +1,386 @@
+package othellogame.model;
+
+/**
+ * Provides static bitboard operations for the Othello game.
+ * <p>
+ * A bitboard is a 64-bit mask where bit "i" corresponds to the field with index "i" of the {@link Board}, so that index 0 is the top-left field and index 63 is the bottom-right field.
+ * <p>
+ * All operations work on a pair of bitboards: the discs of the player to move and the discs of the opponent. They are computed for all fields at once by shifting the masks in the 8 directions instead of scanning the board field by field.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Board
+ * @see OthelloGame
+ */
+public final class BitBoard {
+    /**
+     * Bitboard of all fields except the first and the last column, used to stop horizontal and diagonal shifts from wrapping around the board.
+     */
+    private static final long INNER_COLUMNS = 0x7E7E7E7E7E7E7E7EL;
+
+    /**
+     * Bitboard of all fields except the first column, which can't be reached by a shift towards the next column.
+     */
+    private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+
+    /**
+     * Bitboard of all fields except the last column, which can't be reached by a shift towards the previous column.
+     */
+    private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Bitboard of all fields except the fields on the edges of the board.
+     */
+    private static final long INNER_FIELDS = 0x007E7E7E7E7E7E00L;
+
+    /**
+     * The bitboards of the 15 diagonals going from the top-left to the bottom-right of the board.
+     */
+    private static final long[] DIAGONALS = new long[2 * Board.DIM - 1];
+
+    /**
+     * The bitboards of the 15 anti-diagonals going from the top-right to the bottom-left of the board.
+     */
+    private static final long[] ANTI_DIAGONALS = new long[2 * Board.DIM - 1];
+
+    /**
+     * The fields that can close a line of opponent discs starting next to a move, indexed by the position of the move in a line of 8 fields and by the 6 inner fields of the line occupied by the opponent.
+     * <p>
+     * A field is included if it's right after a run of at least one opponent disc going away from the move, so the move flips this run when the field holds a disc of the player.
+     */
+    private static final byte[][] OUTFLANK = new byte[Board.DIM][64];
+
+    /**
+     * The fields flipped by a move, indexed by the position of the move in a line of 8 fields and by the fields closing the lines of opponent discs (see {@link #OUTFLANK}).
+     */
+    private static final byte[][] FLIPPED = new byte[Board.DIM][256];
+
+    /**
+     * The same flipped fields as {@link #FLIPPED}, placed in the first column of the board, with position "x" of the line at row {@code 7 - x}.
+     */
+    private static final long[][] FLIPPED_COLUMN = new long[Board.DIM][256];
+
+    /**
+     * Magic number gathering the first column of a bitboard into its last row with a multiplication, so that row "r" of the column ends at bit {@code 7 - r} of the last row.
+     */
+    private static final long COLUMN_TO_ROW = 0x8040201008040201L;
+
+    /**
+     * Magic number copying a row into every row of a bitboard with a multiplication.
+     */
+    private static final long ALL_ROWS = 0x0101010101010101L;
+
+    /**
+     * The stable discs of a player on an edge of the board, indexed by the 8-bit edge of the player times 256 plus the 8-bit edge of the opponent.
+     * <p>
+     * A disc on an edge can only be flipped along the edge, so its stability only depends on the 8 fields of the edge. The table is computed once by playing out every possible sequence of moves on each edge.
+     */
+    private static final byte[] EDGE_STABILITY = new byte[256 * 256];
+
+    static {
+        for (int i = 0; i < Board.TOTALDIM; i++) {
+            int row = i / Board.DIM;
+            int col = i % Board.DIM;
+            DIAGONALS[row - col + Board.DIM - 1] |= 1L << i;
+            ANTI_DIAGONALS[row + col] |= 1L << i;
+        }
+        for (int x = 0; x < Board.DIM; x++) {
+            for (int inner = 0; inner < 64; inner++) {
+                int opponent = inner << 1;
+                int outflank = 0;
+                int field = x + 1;
+                while (field < Board.DIM && (opponent & (1 << field)) != 0) {
+                    field++;
+                }
+                if (field > x + 1 && field < Board.DIM) {
+                    outflank |= 1 << field;
+                }
+                field = x - 1;
+                while (field >= 0 && (opponent & (1 << field)) != 0) {
+                    field--;
+                }
+                if (field < x - 1 && field >= 0) {
+                    outflank |= 1 << field;
+                }
+                OUTFLANK[x][inner] = (byte) outflank;
+            }
+            for (int outflank = 0; outflank < 256; outflank++) {
+                int flipped = 0;
+                for (int field = 0; field < Board.DIM; field++) {
+                    if ((outflank & (1 << field)) != 0) {
+                        for (int between = Math.min(x, field) + 1; between < Math.max(x, field); between++) {
+                            flipped |= 1 << between;
+                        }
+                    }
+                }
+                FLIPPED[x][outflank] = (byte) flipped;
+                for (int field = 0; field < Board.DIM; field++) {
+                    if ((flipped & (1 << field)) != 0) {
+                        FLIPPED_COLUMN[x][outflank] |= 1L << ((Board.DIM - 1 - field) * Board.DIM);
+                    }
+                }
+            }
+        }
+        for (int player = 0; player < 256; player++) {
+            for (int opponent = 0; opponent < 256; opponent++) {
+                if ((player & opponent) == 0) {
+                    EDGE_STABILITY[player * 256 + opponent] = (byte) findEdgeStableDiscs(player, opponent, player);
+                }
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the {@code BitBoard} utility class.
+     */
+    private BitBoard() {}
+
+    /**
+     * Generates all valid moves for a player at once.
+     * <p>
+     * A field is a valid move if it is empty and at least one line of opponent discs starting next to it is closed by a disc of the player.
+     * @param player the bitboard of the player to move.
+     * @param opponent the bitboard of the opponent.
+     * @return the bitboard of the valid moves of the player.
+     */
+    public static long generateMoves(long player, long opponent) {
+        long horizontal = opponent & INNER_COLUMNS;
+        long moves = shiftLeft(player, horizontal, 1) | shiftRight(player, horizontal, 1)
+                | shiftLeft(player, opponent, 8) | shiftRight(player, opponent, 8)
+                | shiftLeft(player, horizontal, 7) | shiftRight(player, horizontal, 7)
+                | shiftLeft(player, horizontal, 9) | shiftRight(player, horizontal, 9);
+        return moves & ~(player | opponent);
+    }
+
+    /**
+     * Computes the discs flipped by a move, which are the lines of opponent discs between the move and another disc of the player, in all 8 directions.
+     * <p>
+     * The row, the column and the 2 diagonals through the move are each gathered into 8 bits, and the flipped discs of each line are found with 2 lookups in precomputed tables, so the cost doesn't depend on the length of the flipped lines.
+     * @param index the index of the field where the move is made.
+     * @param player the bitboard of the player making the move.
+     * @param opponent the bitboard of the opponent.
+     * @return the bitboard of the discs flipped by the move.
+     */
+    public static long computeFlips(int index, long player, long opponent) {
+        int row = index >>> 3;
+        int col = index & 7;
+
+        int rowShift = row * Board.DIM;
+        long flips = (long) (lineFlips(col, (int) (player >>> rowShift), (int) (opponent >>> rowShift)) & 0xFF) << rowShift;
+
+        int x = Board.DIM - 1 - row;
+        int outflank = OUTFLANK[x][(int) ((((opponent >>> col) & 0x0101010101010101L) * COLUMN_TO_ROW) >>> 57) & 0x3F]
+                & (int) ((((player >>> col) & 0x0101010101010101L) * COLUMN_TO_ROW) >>> 56);
+        flips |= FLIPPED_COLUMN[x][outflank & 0xFF] << col;
+
+        long diagonal = DIAGONALS[row - col + Board.DIM - 1];
+        flips |= ((lineFlips(col, (int) (((player & diagonal) * ALL_ROWS) >>> 56), (int) (((opponent & diagonal) * ALL_ROWS) >>> 56)) & 0xFFL) * ALL_ROWS) & diagonal;
+
+        long antiDiagonal = ANTI_DIAGONALS[row + col];
+        flips |= ((lineFlips(col, (int) (((player & antiDiagonal) * ALL_ROWS) >>> 56), (int) (((opponent & antiDiagonal) * ALL_ROWS) >>> 56)) & 0xFFL) * ALL_ROWS) & antiDiagonal;
+        return flips;
+    }
+
+    /**
+     * Looks up the fields flipped by a move in a line of 8 fields.
+     * @param x the position of the move in the line.
+     * @param player the fields of the line occupied by the player, in the lowest 8 bits.
+     * @param opponent the fields of the line occupied by the opponent, in the lowest 8 bits.
+     * @return the flipped fields of the line, in the lowest 8 bits.
+     */
+    private static int lineFlips(int x, int player, int opponent) {
+        return FLIPPED[x][OUTFLANK[x][(opponent >>> 1) & 0x3F] & player & 0xFF];
+    }
+
+    /**
+     * Finds all fields next to at least one of the specified discs, in any of the 8 directions.
+     * @param discs the bitboard of the discs.
+     * @return the bitboard of the neighbouring fields, which may include some of the discs themselves.
+     */
+    public static long computeNeighbours(long discs) {
+        long horizontal = ((discs << 1) & NOT_FIRST_COLUMN) | ((discs >>> 1) & NOT_LAST_COLUMN);
+        long row = discs | horizontal;
+        return horizontal | (row << 8) | (row >>> 8);
+    }
+
+    /**
+     * Computes the frontier discs of a player, which are the discs next to at least one empty field.
+     * <p>
+     * Frontier discs give the opponent moves, so having few of them usually means a better position.
+     * @param player the bitboard of the player.
+     * @param opponent the bitboard of the opponent.
+     * @return the bitboard of the frontier discs of the player.
+     */
+    public static long computeFrontier(long player, long opponent) {
+        return player & computeNeighbours(~(player | opponent));
+    }
+
+    /**
+     * Counts the potential mobility of a player, which is the number of pairs made of an opponent disc and an adjacent field among the specified fields.
+     * <p>
+     * Empty fields next to opponent discs are where the player may get moves later, so each such pair counts once per direction. The count is made with one shift and one {@code Long.bitCount} per direction.
+     * @param opponent the bitboard of the opponent.
+     * @param fields the bitboard of the fields to count, usually the empty fields that are not already valid moves.
+     * @return the number of pairs of an opponent disc and an adjacent field.
+     */
+    public static int countPotentialMobility(long opponent, long fields) {
+        return Long.bitCount((opponent << 1) & NOT_FIRST_COLUMN & fields)
+                + Long.bitCount((opponent >>> 1) & NOT_LAST_COLUMN & fields)
+                + Long.bitCount((opponent << 8) & fields)
+                + Long.bitCount((opponent >>> 8) & fields)
+                + Long.bitCount((opponent << 9) & NOT_FIRST_COLUMN & fields)
+                + Long.bitCount((opponent >>> 9) & NOT_LAST_COLUMN & fields)
+                + Long.bitCount((opponent << 7) & NOT_LAST_COLUMN & fields)
+                + Long.bitCount((opponent >>> 7) & NOT_FIRST_COLUMN & fields);
+    }
+
+    /**
+     * Computes the stable discs of a player, which are the discs that can never be flipped again for the rest of the game.
+     * <p>
+     * The computation starts from the discs on the edges, whose stability is looked up in a precomputed table, and the discs whose 4 lines (row, column and both diagonals) are full. Then a disc is stable if, in each of the 4 directions, its line is full or it touches a stable disc of the player, and this is propagated until no new stable disc is found.
+     * <p>
+     * The result never contains a disc that can still be flipped; a few stable discs in rare configurations may be missing.
+     * @param player the bitboard of the player whose stable discs are computed.
+     * @param opponent the bitboard of the opponent.
+     * @return the bitboard of the stable discs of the player.
+     */
+    public static long computeStableDiscs(long player, long opponent) {
+        long filled = player | opponent;
+        long fullRows = 0;
+        for (int row = 0; row < Board.DIM; row++) {
+            long rowMask = 0xFFL << (row * Board.DIM);
+            if ((filled & rowMask) == rowMask) {
+                fullRows |= rowMask;
+            }
+        }
+        long columns = filled & (filled >>> 32);
+        columns &= columns >>> 16;
+        columns &= columns >>> 8;
+        long fullColumns = (columns & 0xFFL) * 0x0101010101010101L;
+        long fullDiagonals = 0;
+        long fullAntiDiagonals = 0;
+        for (int i = 0; i < DIAGONALS.length; i++) {
+            if ((filled & DIAGONALS[i]) == DIAGONALS[i]) {
+                fullDiagonals |= DIAGONALS[i];
+            }
+            if ((filled & ANTI_DIAGONALS[i]) == ANTI_DIAGONALS[i]) {
+                fullAntiDiagonals |= ANTI_DIAGONALS[i];
+            }
+        }
+
+        long stable = computeEdgeStableDiscs(player, opponent) | (player & fullRows & fullColumns & fullDiagonals & fullAntiDiagonals);
+        long candidates = player & INNER_FIELDS & ~stable;
+        long newStable = stable;
+        while (newStable != 0) {
+            long horizontal = (stable >>> 1) | (stable << 1) | fullRows;
+            long vertical = (stable >>> 8) | (stable << 8) | fullColumns;
+            long diagonal = (stable >>> 9) | (stable << 9) | fullDiagonals;
+            long antiDiagonal = (stable >>> 7) | (stable << 7) | fullAntiDiagonals;
+            newStable = candidates & horizontal & vertical & diagonal & antiDiagonal;
+            stable |= newStable;
+            candidates &= ~newStable;
+        }
+        return stable;
+    }
+
+    /**
+     * Computes the stable discs of a player on the 4 edges of the board.
+     * @param player the bitboard of the player.
+     * @param opponent the bitboard of the opponent.
+     * @return the bitboard of the stable discs of the player on the edges.
+     */
+    private static long computeEdgeStableDiscs(long player, long opponent) {
+        long stable = edgeStability(player, opponent) | ((long) edgeStability(player >>> 56, opponent >>> 56) << 56);
+        long transposedPlayer = Symmetry.flipDiagonal(player);
+        long transposedOpponent = Symmetry.flipDiagonal(opponent);
+        long columns = edgeStability(transposedPlayer, transposedOpponent)
+                | ((long) edgeStability(transposedPlayer >>> 56, transposedOpponent >>> 56) << 56);
+        return stable | Symmetry.flipDiagonal(columns);
+    }
+
+    /**
+     * Looks up the stable discs of a player on the edge made of the lowest 8 bits of the bitboards.
+     * @param player the bitboard of the player.
+     * @param opponent the bitboard of the opponent.
+     * @return the stable discs of the player on the edge, as an 8-bit mask.
+     */
+    private static int edgeStability(long player, long opponent) {
+        return EDGE_STABILITY[(int) (player & 0xFF) * 256 + (int) (opponent & 0xFF)] & 0xFF;
+    }
+
+    /**
+     * Finds the discs of a player on an edge that stay with the player whatever moves are played on the empty fields of the edge.
+     * <p>
+     * Both players are allowed to play on any empty field, even when the move flips nothing, so the result holds for every possible continuation of the game.
+     * @param player the 8-bit edge of the player.
+     * @param opponent the 8-bit edge of the opponent.
+     * @param stable the discs still considered stable.
+     * @return the discs of {@code stable} that are never flipped.
+     */
+    private static int findEdgeStableDiscs(int player, int opponent, int stable) {
+        int empty = ~(player | opponent) & 0xFF;
+        stable &= player;
+        if (stable == 0 || empty == 0) {
+            return stable;
+        }
+        for (int field = 1; field <= 0x80; field <<= 1) {
+            if ((empty & field) != 0) {
+                int flips = edgeFlips(field, player, opponent);
+                stable = findEdgeStableDiscs(player | field | flips, opponent & ~flips, stable);
+                if (stable == 0) {
+                    return 0;
+                }
+                flips = edgeFlips(field, opponent, player);
+                stable = findEdgeStableDiscs(player & ~flips, opponent | field | flips, stable);
+                if (stable == 0) {
+                    return 0;
+                }
+            }
+        }
+        return stable;
+    }
+
+    /**
+     * Computes the discs flipped by a move on an 8-bit edge.
+     * @param field the 8-bit mask of the field of the move.
+     * @param player the 8-bit edge of the player making the move.
+     * @param opponent the 8-bit edge of the opponent.
+     * @return the 8-bit mask of the flipped discs.
+     */
+    private static int edgeFlips(int field, int player, int opponent) {
+        return lineFlips(Integer.numberOfTrailingZeros(field), player, opponent) & 0xFF;
+    }
+
+    /**
+     * Finds the fields right after a line of opponent discs that starts next to a player disc, in the direction of increasing indexes.
+     * @param player the bitboard of the player.
+     * @param opponent the bitboard of the opponent discs that can be part of the line.
+     * @param shift the distance between 2 consecutive fields of the direction.
+     * @return the bitboard of the fields that close a line of opponent discs.
+     */
+    private static long shiftLeft(long player, long opponent, int shift) {
+        long line = (player << shift) & opponent;
+        line |= (line << shift) & opponent;
+        line |= (line << shift) & opponent;
+        line |= (line << shift) & opponent;
+        line |= (line << shift) & opponent;
+        line |= (line << shift) & opponent;
+        return line << shift;
+    }
+
+    /**
+     * Finds the fields right after a line of opponent discs that starts next to a player disc, in the direction of decreasing indexes.
+     * @param player the bitboard of the player.
+     * @param opponent the bitboard of the opponent discs that can be part of the line.
+     * @param shift the distance between 2 consecutive fields of the direction.
+     * @return the bitboard of the fields that close a line of opponent discs.
+     */
+    private static long shiftRight(long player, long opponent, int shift) {
+        long line = (player >>> shift) & opponent;
+        line |= (line >>> shift) & opponent;
+        line |= (line >>> shift) & opponent;
+        line |= (line >>> shift) & opponent;
+        line |= (line >>> shift) & opponent;
+        line |= (line >>> shift) & opponent;
+        return line >>> shift;
+    }
+}
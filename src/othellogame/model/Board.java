@@ -13,9 +13,11 @@ package othellogame.model;
  * <p>
  * The class provides methods for querying and manipulating the state of the board, including setting and getting the mark at a specific position, checking if a cell is empty, and performing deep copies of the board.
  * <p>
- * Additionally, the class includes methods for visualizing the board as a string and checking the stability of a move for a given player. Stability is determined by examining the surrounding cells and assessing whether a move creates a stable position for the player.
+ * Additionally, the class includes methods for visualizing the board as a string and finding the stable discs of a given player, which are the discs that can never be flipped again.
  * <p>
  * The class also includes constants for the dimension of the board, color codes for console output, and methods for resetting the board to its initial state.
+ * <p>
+ * Internally, the position is stored as 2 bitboards: one 64-bit mask for the black discs and one for the white discs, where bit "i" corresponds to the field with index "i". This makes disc counting and whole-board queries simple mask arithmetic instead of per-field array reads.
  * @author Dinh Thuy Nhat Vy
  * @version 1.0, 12/07/2023
  * @see Mark
@@ -32,9 +34,44 @@ public class Board {
     public static final int TOTALDIM = DIM * DIM;
 
     /**
-     * Array representing the state of each cell on the board.
+     * Bitboard of the fields occupied by the initial black discs (indexes 28 and 35).
+     */
+    private static final long INITIAL_BLACK = (1L << 28) | (1L << 35);
+
+    /**
+     * Bitboard of the fields occupied by the initial white discs (indexes 27 and 36).
+     */
+    private static final long INITIAL_WHITE = (1L << 27) | (1L << 36);
+
+    /**
+     * Bitboard of the 4 central fields, which are kept by {@link #reset()}.
+     */
+    private static final long CENTER = INITIAL_BLACK | INITIAL_WHITE;
+
+    /**
+     * Bitboard representing the fields occupied by black discs.
+     */
+    private long black;
+
+    /**
+     * Bitboard representing the fields occupied by white discs.
+     */
+    private long white;
+
+    /**
+     * The Zobrist hash of the discs on the board, updated incrementally whenever a field changes.
+     */
+    private long hash;
+
+    /**
+     * The disc-square score of the black discs, updated incrementally whenever a field changes.
+     */
+    private int blackSquares;
+
+    /**
+     * The disc-square score of the white discs, updated incrementally whenever a field changes.
      */
-    private final Mark[] fields = new Mark[TOTALDIM];
+    private int whiteSquares;
 
     /**
      * Delimiter for formatting console output.
@@ -77,13 +114,33 @@ public class Board {
      * Sets up the starting positions for black and white pieces.
      */
     public Board() {
-        for (int i = 0; i < TOTALDIM; i++) {
-            fields[i] = Mark.EMPTY;
-        }
-        fields[index(3, 3)] = Mark.WHITE;
-        fields[index(3, 4)] = Mark.BLACK;
-        fields[index(4, 3)] = Mark.BLACK;
-        fields[index(4, 4)] = Mark.WHITE;
+        this(INITIAL_BLACK, INITIAL_WHITE, Zobrist.hash(INITIAL_BLACK, INITIAL_WHITE));
+    }
+
+    /**
+     * Initializes the board with the given black and white bitboards and their hash.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs.
+     * @param hash the Zobrist hash of the discs.
+     */
+    Board(long black, long white, long hash) {
+        this(black, white, hash, DiscSquares.score(black, black | white), DiscSquares.score(white, black | white));
+    }
+
+    /**
+     * Initializes the board with the given black and white bitboards, their hash and their disc-square scores.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs.
+     * @param hash the Zobrist hash of the discs.
+     * @param blackSquares the disc-square score of the black discs.
+     * @param whiteSquares the disc-square score of the white discs.
+     */
+    private Board(long black, long white, long hash, int blackSquares, int whiteSquares) {
+        this.black = black;
+        this.white = white;
+        this.hash = hash;
+        this.blackSquares = blackSquares;
+        this.whiteSquares = whiteSquares;
     }
 
     /**
@@ -91,11 +148,7 @@ public class Board {
      * @return a new {@code Board} object with the same state as the current board.
      */
     public Board deepCopy() {
-        Board board = new Board();
-        for (int i = 0; i < TOTALDIM; i++) {
-            board.setField(i, getField(i));
-        }
-        return board;
+        return new Board(black, white, hash, blackSquares, whiteSquares);
     }
 
     /**
@@ -123,7 +176,17 @@ public class Board {
      * @return the mark at the specified index.
      */
     public Mark getField(int index) {
-        return fields[index];
+        if (!isField(index)) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        long bit = 1L << index;
+        if ((black & bit) != 0) {
+            return Mark.BLACK;
+        } else if ((white & bit) != 0) {
+            return Mark.WHITE;
+        } else {
+            return Mark.EMPTY;
+        }
     }
 
     /**
@@ -135,6 +198,30 @@ public class Board {
         return getField(index) == Mark.EMPTY;
     }
 
+    /**
+     * Gets the bitboard of the fields occupied by the specified mark.
+     * @param m the mark to retrieve the bitboard for.
+     * @return the bitboard of the discs with the specified mark, or the bitboard of the empty fields for {@code Mark.EMPTY}.
+     */
+    public long getDiscs(Mark m) {
+        if (m == Mark.BLACK) {
+            return black;
+        } else if (m == Mark.WHITE) {
+            return white;
+        } else {
+            return ~(black | white);
+        }
+    }
+
+    /**
+     * Counts the fields occupied by the specified mark.
+     * @param m the mark to count.
+     * @return the number of fields with the specified mark.
+     */
+    public int countDiscs(Mark m) {
+        return Long.bitCount(getDiscs(m));
+    }
+
     /**
      * Sets the mark at the specified index on the board.
      * @param index the one-dimensional index to set the mark at.
@@ -142,25 +229,127 @@ public class Board {
      */
     public void setField(int index, Mark m) {
         if (isField(index)) {
-            fields[index] = m;
+            long bit = 1L << index;
+            long region = DiscSquares.REGIONS[index];
+            if (region != 0 && ((black | white) & bit) == 0) {
+                blackSquares -= DiscSquares.sum(black & region);
+                whiteSquares -= DiscSquares.sum(white & region);
+            }
+            if ((black & bit) != 0) {
+                hash ^= Zobrist.BLACK_KEYS[index];
+                blackSquares -= DiscSquares.value(index, black | white);
+            } else if ((white & bit) != 0) {
+                hash ^= Zobrist.WHITE_KEYS[index];
+                whiteSquares -= DiscSquares.value(index, black | white);
+            }
+            black &= ~bit;
+            white &= ~bit;
+            if (m == Mark.BLACK) {
+                black |= bit;
+                hash ^= Zobrist.BLACK_KEYS[index];
+                blackSquares += DiscSquares.value(index, black | white);
+            } else if (m == Mark.WHITE) {
+                white |= bit;
+                hash ^= Zobrist.WHITE_KEYS[index];
+                whiteSquares += DiscSquares.value(index, black | white);
+            }
+            if (region != 0 && ((black | white) & bit) == 0) {
+                blackSquares += DiscSquares.sum(black & region);
+                whiteSquares += DiscSquares.sum(white & region);
+            }
         }
     }
 
     /**
-     * Resets the board to its initial state, clearing all marks except for the starting positions of black and white pieces.
+     * Flips the disc at the specified index on the board, leaving an empty field unchanged.
+     * @param index the one-dimensional index of the disc to flip.
      */
-    public void reset() {
-        for (int i = 0; i < DIM; i++) {
-            for (int j = 0; j < DIM; j++) {
-                if ((i == 3 && j == 3) || (i == 3 && j == 4) || (i == 4 && j == 3) || (i == 4 && j == 4)) {
-                    continue;
-                } else {
-                    setField(index(i, j), Mark.EMPTY);
-                }
+    void flipField(int index) {
+        if (isField(index)) {
+            long bit = 1L << index;
+            if (((black | white) & bit) != 0) {
+                flipFields(bit);
             }
         }
     }
 
+    /**
+     * Flips all discs of the specified bitboard at once.
+     * @param discs the bitboard of the discs to flip, which must all be occupied fields.
+     */
+    void flipFields(long discs) {
+        long occupied = black | white;
+        int blackToWhite = 0;
+        for (long flips = discs; flips != 0; flips &= flips - 1) {
+            int index = Long.numberOfTrailingZeros(flips);
+            hash ^= Zobrist.FLIP_KEYS[index];
+            int value = DiscSquares.value(index, occupied);
+            blackToWhite += (black & flips & -flips) != 0 ? value : -value;
+        }
+        blackSquares -= blackToWhite;
+        whiteSquares += blackToWhite;
+        black ^= discs;
+        white ^= discs;
+    }
+
+    /**
+     * Gets the Zobrist hash of the discs on the board.
+     * <p>
+     * Two boards with the same discs always have the same hash, and the hash is kept up to date by every change of a field.
+     * @return the hash of the discs on the board.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the disc-square score of a given player, which is the sum of the values of the player's discs in the disc-square table of the heuristic.
+     * <p>
+     * The score is kept up to date by every change of a field, so reading it doesn't scan the board.
+     * @param m the mark of the player.
+     * @return the disc-square score of the player.
+     */
+    public int getSquareScore(Mark m) {
+        return m == Mark.BLACK ? blackSquares : whiteSquares;
+    }
+
+    /**
+     * Gets the value of a disc on the specified field in the disc-square table of the heuristic.
+     * @param index the index of the field.
+     * @param occupied the bitboard of all discs on the board.
+     * @return the value of the field, or 0 if the corner of its region is occupied.
+     */
+    public static int getSquareValue(int index, long occupied) {
+        return DiscSquares.value(index, occupied);
+    }
+
+    /**
+     * Replaces all discs on the board with the given bitboards and their previously computed hash and disc-square scores.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs.
+     * @param hash the Zobrist hash of the discs.
+     * @param blackSquares the disc-square score of the black discs.
+     * @param whiteSquares the disc-square score of the white discs.
+     */
+    void setDiscs(long black, long white, long hash, int blackSquares, int whiteSquares) {
+        this.black = black;
+        this.white = white;
+        this.hash = hash;
+        this.blackSquares = blackSquares;
+        this.whiteSquares = whiteSquares;
+    }
+
+    /**
+     * Resets the board to its initial state, clearing all marks except for the starting positions of black and white pieces.
+     */
+    public void reset() {
+        black &= CENTER;
+        white &= CENTER;
+        hash = Zobrist.hash(black, white);
+        blackSquares = DiscSquares.score(black, black | white);
+        whiteSquares = DiscSquares.score(white, black | white);
+    }
+
     /**
      * Generates a string representation of the board with index information.
      * <p>
@@ -192,69 +381,12 @@ public class Board {
     }
 
     /**
-     * Checks the stability of a move for a given player at the specified coordinates.
-     * <p>
-     * Stability is determined by examining the surrounding cells.
-     * @param m the mark of the player making the move.
-     * @param x the row coordinate of the move.
-     * @param y the column coordinate of the move.
-     * @return a stability value: 1 for stable, 0 for semi-stable, -1 for unstable.
-     */
-    public double checkStability(Mark m, int x, int y) {
-        if (getField(index(x, y)) != m) {
-            return 0;
-        }
-        int[] adjX = {-1, -1, -1, 0, 1, 1, 1, 0};
-        int[] adjY = {-1, 0, 1, 1, 1, 0, -1, -1};
-        double firstStabilityChecking = 1, finalStabilityChecking = 1;
-        for (int i = 0; i < 8; i++) {
-            int curX1 = x + adjX[i], curY1 = y + adjY[i];
-            int curX2 = x - adjX[i], curY2 = y - adjY[i];
-            while (isField(index(curX1, curY1))) {
-                if (getField(index(curX1, curY1)) == m.otherMark()) {
-                    firstStabilityChecking = 2;
-                    break;
-                } else if (getField(index(curX1, curY1)) == Mark.EMPTY) {
-                    firstStabilityChecking = 1;
-                    break;
-                }
-                curX1 += adjX[i];
-                curY1 += adjY[i];
-            }
-            if (firstStabilityChecking == 0) {
-                continue;
-            }
-            while (isField(index(curX2, curY2))) {
-                if (getField(index(curX2, curY2)) == m.otherMark()) {
-                    if (firstStabilityChecking == 2) {
-                        firstStabilityChecking = 1;
-                    } else if (firstStabilityChecking == 1) {
-                        firstStabilityChecking = -1;
-                    } else if (firstStabilityChecking == 0) {
-                        firstStabilityChecking = 1;
-                    }
-                    break;
-                } else if (getField(index(curX2, curY2)) == Mark.EMPTY) {
-                    if (firstStabilityChecking == 2) {
-                        firstStabilityChecking = -1;
-                    } else if (firstStabilityChecking == 1) {
-                        firstStabilityChecking = 0;
-                    } else if (firstStabilityChecking == 0) {
-                        firstStabilityChecking = 1;
-                    }
-                    break;
-                }
-                curX2 -= adjX[i];
-                curY2 -= adjY[i];
-            }
-            if (firstStabilityChecking == -1) {
-                finalStabilityChecking = -1;
-                break;
-            }
-            if (firstStabilityChecking == 0) {
-                finalStabilityChecking = 0;
-            }
-        }
-        return finalStabilityChecking;
+     * Gets the stable discs of a given player, which are the discs that can never be flipped again for the rest of the game.
+     * @param m the mark of the player.
+     * @return the bitboard of the stable discs of the player.
+     * @see BitBoard#computeStableDiscs(long, long)
+     */
+    public long getStableDiscs(Mark m) {
+        return m == Mark.BLACK ? BitBoard.computeStableDiscs(black, white) : BitBoard.computeStableDiscs(white, black);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package othellogame.model;
+
+/**
+ * Provides the disc-square table used by the heuristic of the Othello game.
+ * <p>
+ * Each field has a value that estimates how good it is to own a disc there: corners are worth the most, while the fields next to an empty corner are dangerous because they give the corner away. Once a corner is occupied, the fields of its region lose their danger and their value becomes 0.
+ * <p>
+ * The disc-square score of a player is the sum of the values of the player's discs. {@link Board} keeps the scores of both players up to date whenever a field changes, like its Zobrist hash, so the heuristic doesn't have to rescan the board.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Board
+ * @see OthelloGame
+ */
+final class DiscSquares {
+    /**
+     * The value of a disc on each field while the corner of its region is empty.
+     */
+    private static final int[] VALUES = {4, -3, 2, 2, 2, 2, -3, 4,
+        -3, -4, -1, -1, -1, -1, -4, -3,
+        2, -1, 1, 0, 0, 1, -1, 2,
+        2, -1, 0, 1, 1, 0, -1, 2,
+        2, -1, 0, 1, 1, 0, -1, 2,
+        2, -1, 1, 0, 0, 1, -1, 2,
+        -3, -4, -1, -1, -1, -1, -4, -3,
+        4, -3, 2, 2, 2, 2, -3, 4};
+
+    /**
+     * The bitboards of the regions whose values become 0 once their corner is occupied, indexed by the index of the corner; 0 for the other fields.
+     */
+    static final long[] REGIONS = new long[Board.TOTALDIM];
+
+    /**
+     * The bitboard of the corner controlling the region of each field, or 0 if the field is not in a region.
+     */
+    private static final long[] CORNERS = new long[Board.TOTALDIM];
+
+    static {
+        REGIONS[0] = 0x0000000003070F0EL;
+        REGIONS[7] = 0x00000000C0E0F070L;
+        REGIONS[56] = 0x0E0F070300000000L;
+        REGIONS[63] = 0x70F0E0C000000000L;
+        for (int corner : new int[]{0, 7, 56, 63}) {
+            for (long region = REGIONS[corner]; region != 0; region &= region - 1) {
+                CORNERS[Long.numberOfTrailingZeros(region)] = 1L << corner;
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the {@code DiscSquares} utility class.
+     */
+    private DiscSquares() {}
+
+    /**
+     * Gets the current value of a disc on the specified field.
+     * @param index the index of the field.
+     * @param occupied the bitboard of all discs on the board.
+     * @return the value of the field, or 0 if the corner of its region is occupied.
+     */
+    static int value(int index, long occupied) {
+        return (occupied & CORNERS[index]) != 0 ? 0 : VALUES[index];
+    }
+
+    /**
+     * Sums the values of the specified discs, ignoring whether the corners of their regions are occupied.
+     * @param discs the bitboard of the discs.
+     * @return the sum of the values of the discs.
+     */
+    static int sum(long discs) {
+        int sum = 0;
+        for (; discs != 0; discs &= discs - 1) {
+            sum += VALUES[Long.numberOfTrailingZeros(discs)];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the disc-square score of a player from scratch.
+     * @param discs the bitboard of the player's discs.
+     * @param occupied the bitboard of all discs on the board.
+     * @return the disc-square score of the player.
+     */
+    static int score(long discs, long occupied) {
+        int score = 0;
+        for (; discs != 0; discs &= discs - 1) {
+            score += value(Long.numberOfTrailingZeros(discs), occupied);
+        }
+        return score;
+    }
+}
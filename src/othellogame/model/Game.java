@@ -17,11 +17,11 @@ import java.util.*;
  * <p>
  * - Counting the number of black and white pieces on the board.
  * <p>
- * - Validating moves and obtaining lists of valid moves for the current player and the opponent.
+ * - Validating moves and obtaining lists of valid moves for the current player and the opponent, or the valid moves of the current player as primitive values.
  * <p>
  * - Flipping pieces on the board according to game rules.
  * <p>
- * - Executing player moves.
+ * - Executing player moves and undoing them.
  * <p>
  * - Determining if the game is over and identifying the winner.
  * <p>
@@ -60,6 +60,18 @@ public interface Game {
      */
     Board getBoard();
 
+    /**
+     * Gets the hash of the current position, including the discs on the board and the player to move.
+     * @return the hash of the current position.
+     */
+    long getHash();
+
+    /**
+     * Creates an immutable snapshot of the current position, which can be shared between threads without copying.
+     * @return the current position.
+     */
+    Position getPosition();
+
     /**
      * Counts the number of black pieces on the board.
      * @return the count of black pieces.
@@ -79,12 +91,45 @@ public interface Game {
      */
     boolean isValidMove(Move move);
 
+    /**
+     * Checks if playing at the given index is a valid move for the current player.
+     * @param index the index of the move to validate.
+     * @return true if the move is valid, false otherwise.
+     */
+    boolean isValidMove(int index);
+
     /**
      * Gets a list of valid moves for the current player.
      * @return a list of valid moves.
      */
     List<Move> getValidMoves();
 
+    /**
+     * Gets the valid moves for the current player as a bitboard, where bit "i" is set if the field with index "i" is a valid move.
+     * @return the bitboard of the valid moves.
+     */
+    long getValidMovesMask();
+
+    /**
+     * Counts the valid moves for the current player.
+     * @return the number of valid moves.
+     */
+    int countValidMoves();
+
+    /**
+     * Writes the indexes of the valid moves for the current player into the given buffer.
+     * @param buffer the buffer to fill.
+     * @return the number of valid moves written into the buffer.
+     */
+    int fillValidMoves(int[] buffer);
+
+    /**
+     * Writes the indexes of the valid moves for the current player into the given buffer.
+     * @param buffer the buffer to fill.
+     * @return the number of valid moves written into the buffer.
+     */
+    int fillValidMoves(byte[] buffer);
+
     /**
      * Gets a list of valid moves for the opponent of the current player.
      * @return a list of valid moves for the opponent.
@@ -103,6 +148,17 @@ public interface Game {
      */
     void doMove(Move move);
 
+    /**
+     * Executes a move of the current player at the given index.
+     * @param index the index of the move to be executed.
+     */
+    void doMove(int index);
+
+    /**
+     * Undoes the last executed move, restoring the previous game state.
+     */
+    void undoMove();
+
     /**
      * Checks if the game is over.
      * @return true if the game is over, false otherwise.
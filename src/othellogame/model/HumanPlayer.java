@@ -53,7 +53,7 @@ public class HumanPlayer extends AbstractPlayer {
             System.out.print(game.getTurn() + ", please enter an index: ");
             try {
                 index = scanner.nextInt();
-                if (index == 64) {
+                if (index == OthelloMove.PASS_INDEX) {
                     if (game.getValidMoves().isEmpty()) {
                         move = null;
                         scanner.nextLine();
@@ -65,7 +65,7 @@ public class HumanPlayer extends AbstractPlayer {
                         validInput = false;
                     }
                 } else {
-                    move = new OthelloMove(mark, index);
+                    move = OthelloMove.of(mark, index);
                     if (othelloGame.isValidMove(move)) {
                         validInput = true;
                     } else {
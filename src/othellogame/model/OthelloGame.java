@@ -39,9 +39,79 @@ public class OthelloGame implements Game {
     /**
      * Represents the list of fields to flip for the last move.
      * <p>
-     * This list is updated after each move to store the fields that were flipped as a result of the move.
+     * This list is only built when it's requested by {@link #getFieldsToFlipList()}, and it's discarded whenever a move is executed or undone.
      */
-    private List<List<Integer>> fieldsToFlipList = new ArrayList<>();
+    private List<List<Integer>> fieldsToFlipList;
+
+    /**
+     * The initial capacity of the undo stack, which is enough for a complete game without passes.
+     */
+    private static final int UNDO_CAPACITY = 64;
+
+    /**
+     * Stack of the black bitboards before each executed move, used to undo the moves.
+     */
+    private long[] undoBlack = new long[UNDO_CAPACITY];
+
+    /**
+     * Stack of the white bitboards before each executed move, used to undo the moves.
+     */
+    private long[] undoWhite = new long[UNDO_CAPACITY];
+
+    /**
+     * Stack of the indexes of the current player before each executed move, used to undo the moves.
+     */
+    private int[] undoPlayerIndex = new int[UNDO_CAPACITY];
+
+    /**
+     * Stack of the hashes of the discs before each executed move, used to undo the moves.
+     */
+    private long[] undoHash = new long[UNDO_CAPACITY];
+
+    /**
+     * Stack of the disc-square scores of the black discs before each executed move, used to undo the moves.
+     */
+    private int[] undoBlackSquares = new int[UNDO_CAPACITY];
+
+    /**
+     * Stack of the disc-square scores of the white discs before each executed move, used to undo the moves.
+     */
+    private int[] undoWhiteSquares = new int[UNDO_CAPACITY];
+
+    /**
+     * Stack of the indexes of the executed moves.
+     */
+    private int[] undoIndex = new int[UNDO_CAPACITY];
+
+    /**
+     * Stack of the bitboards of the discs flipped by the executed moves.
+     */
+    private long[] undoFlips = new long[UNDO_CAPACITY];
+
+    /**
+     * The black bitboard of the position for which the valid moves are cached.
+     */
+    private long cachedBlack;
+
+    /**
+     * The white bitboard of the position for which the valid moves are cached.
+     */
+    private long cachedWhite;
+
+    /**
+     * The cached bitboards of the valid moves in the cached position, indexed by the ordinal of the mark of the player.
+     */
+    private final long[] cachedMoves = new long[2];
+
+    /**
+     * Flags telling which entries of {@link #cachedMoves} are valid for the cached position: bit 0 for black and bit 1 for white.
+     */
+    private int cachedMovesFlags;
+
+    /**
+     * The number of executed moves that can be undone.
+     */
+    private int undoSize;
 
     /**
      * Constructs an {@code OthelloGame} object with a specified game board, 2 players, and the index of the current player.
@@ -68,6 +138,20 @@ public class OthelloGame implements Game {
         this.player2 = player2;
     }
 
+    /**
+     * Constructs an {@code OthelloGame} object from an immutable position and 2 players.
+     * <p>
+     * The game gets its own board, so it can be played and analysed without affecting the position or other games created from it.
+     * @param position the position to start from.
+     * @param player1 first player.
+     * @param player2 second player.
+     */
+    public OthelloGame(Position position, Player player1, Player player2) {
+        this(new Board(position.getDiscs(Mark.BLACK), position.getDiscs(Mark.WHITE),
+                position.isFirstPlayerTurn() ? position.getHash() : position.getHash() ^ Zobrist.SIDE_KEY),
+                player1, player2, position.isFirstPlayerTurn() ? 0 : 1);
+    }
+
     /**
      * Gets the player whose turn it is.
      * @return the current player.
@@ -98,6 +182,28 @@ public class OthelloGame implements Game {
         return board;
     }
 
+    /**
+     * Gets the Zobrist hash of the current position.
+     * <p>
+     * The hash of the discs is maintained incrementally by the board, and the side to move is folded in with an extra key when it's the second player's turn, so swapping the turn changes the hash.
+     * @return the hash of the current position.
+     */
+    @Override
+    public long getHash() {
+        return playerIndex == 0 ? board.getHash() : board.getHash() ^ Zobrist.SIDE_KEY;
+    }
+
+    /**
+     * Creates an immutable snapshot of the current position.
+     * <p>
+     * The snapshot can be shared with other threads and read concurrently without copying, while this game keeps changing.
+     * @return the current position.
+     */
+    @Override
+    public Position getPosition() {
+        return new Position(board.getDiscs(Mark.BLACK), board.getDiscs(Mark.WHITE), playerIndex, getHash());
+    }
+
     /**
      * Counts the number of black discs on the board.
      * @return the number of black discs.
@@ -105,13 +211,7 @@ public class OthelloGame implements Game {
     @Override
     public int countBlack() {
         if (isGameOver()) {
-            int count = 0;
-            for (int i = 0; i < Board.TOTALDIM; i++) {
-                if (board.getField(i) == Mark.BLACK) {
-                    count++;
-                }
-            }
-            return count;
+            return board.countDiscs(Mark.BLACK);
         } else {
             return -1;
         }
@@ -124,13 +224,7 @@ public class OthelloGame implements Game {
     @Override
     public int countWhite() {
         if (isGameOver()) {
-            int count = 0;
-            for (int i = 0; i < Board.TOTALDIM; i++) {
-                if (board.getField(i) == Mark.WHITE) {
-                    count++;
-                }
-            }
-            return count;
+            return board.countDiscs(Mark.WHITE);
         } else {
             return -1;
         }
@@ -146,160 +240,86 @@ public class OthelloGame implements Game {
         if (!(move instanceof OthelloMove)) {
             return false;
         }
-        OthelloMove othelloMove = (OthelloMove) move;
-        Mark currentMark = playerIndex == 0 ? Mark.BLACK : Mark.WHITE;
-        Mark opponentMark = currentMark.otherMark();
-        int row = othelloMove.getIndex() / Board.DIM;
-        int col = othelloMove.getIndex() % Board.DIM;
-        if (!board.isField(board.index(row, col)) || board.getField(board.index(row, col)) != Mark.EMPTY) {
-            return false;
-        }
-
-        {
-            boolean firstCheck = false;
-            int i = row - 1;
-            int j = col - 1;
-            while (i >= 0 && j >= 0) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-                i--;
-                j--;
-            }
-        }
-
-        {
-            boolean firstCheck = false;
-            for (int i = row - 1; i >= 0; i--) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, col)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(i, col)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-            }
-        }
-
-        {
-            boolean firstCheck = false;
-            int i = row - 1;
-            int j = col + 1;
-            while (i >= 0 && j < Board.DIM) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-                i--;
-                j++;
-            }
-        }
+        return isValidMove(((OthelloMove) move).getIndex());
+    }
 
-        {
-            boolean firstCheck = false;
-            for (int j = col + 1; j < Board.DIM; j++) {
-                if (firstCheck) {
-                    if (board.getField(board.index(row, j)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(row, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-            }
-        }
+    /**
+     * Checks if playing at the specified index is a valid move for the current player, without creating a move object.
+     * @param index the index of the move to check.
+     * @return true if the move is valid, false otherwise.
+     */
+    @Override
+    public boolean isValidMove(int index) {
+        return board.isField(index) && (getValidMovesMask() & (1L << index)) != 0;
+    }
 
-        {
-            boolean firstCheck = false;
-            int i = row + 1;
-            int j = col + 1;
-            while (i < Board.DIM && j < Board.DIM) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-                i++;
-                j++;
-            }
-        }
+    /**
+     * Generates the valid moves for the current player as a bitboard, where bit "i" is set if the field with index "i" is a valid move.
+     * @return the bitboard of the valid moves for the current player.
+     */
+    @Override
+    public long getValidMovesMask() {
+        return getValidMovesMask(playerIndex == 0 ? Mark.BLACK : Mark.WHITE);
+    }
 
-        {
-            boolean firstCheck = false;
-            for (int i = row + 1; i < Board.DIM; i++) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, col)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(i, col)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-            }
-        }
+    /**
+     * Counts the valid moves for the current player.
+     * @return the number of valid moves for the current player.
+     */
+    @Override
+    public int countValidMoves() {
+        return Long.bitCount(getValidMovesMask());
+    }
 
-        {
-            boolean firstCheck = false;
-            int i = row + 1;
-            int j = col - 1;
-            while (i < Board.DIM && j >= 0) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-                i++;
-                j--;
-            }
+    /**
+     * Writes the indexes of the valid moves for the current player into the specified buffer, ordered by increasing index.
+     * @param buffer the buffer to fill, which must be large enough for all valid moves ({@link Board#TOTALDIM} is always enough).
+     * @return the number of valid moves written into the buffer.
+     */
+    @Override
+    public int fillValidMoves(int[] buffer) {
+        int count = 0;
+        for (long moves = getValidMovesMask(); moves != 0; moves &= moves - 1) {
+            buffer[count++] = Long.numberOfTrailingZeros(moves);
         }
+        return count;
+    }
 
-        {
-            boolean firstCheck = false;
-            for (int j = col - 1; j >= 0; j--) {
-                if (firstCheck) {
-                    if (board.getField(board.index(row, j)) == currentMark) {
-                        return true;
-                    }
-                }
-                if (board.getField(board.index(row, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                }
-            }
+    /**
+     * Writes the indexes of the valid moves for the current player into the specified buffer, ordered by increasing index.
+     * @param buffer the buffer to fill, which must be large enough for all valid moves ({@link Board#TOTALDIM} is always enough).
+     * @return the number of valid moves written into the buffer.
+     */
+    @Override
+    public int fillValidMoves(byte[] buffer) {
+        int count = 0;
+        for (long moves = getValidMovesMask(); moves != 0; moves &= moves - 1) {
+            buffer[count++] = (byte) Long.numberOfTrailingZeros(moves);
         }
+        return count;
+    }
 
-        return false;
+    /**
+     * Gets the valid moves of the specified player in the current position as a bitboard.
+     * <p>
+     * The result is memoised per position: it's only generated again when the discs on the board have changed since the last call, so repeated queries such as {@link #isGameOver()}, {@link #countBlack()} and {@link #getWinner()} cost no move generation.
+     * @param mark the mark of the player (BLACK or WHITE).
+     * @return the bitboard of the valid moves of the player.
+     */
+    private long getValidMovesMask(Mark mark) {
+        long black = board.getDiscs(Mark.BLACK);
+        long white = board.getDiscs(Mark.WHITE);
+        if (black != cachedBlack || white != cachedWhite) {
+            cachedBlack = black;
+            cachedWhite = white;
+            cachedMovesFlags = 0;
+        }
+        int flag = 1 << mark.ordinal();
+        if ((cachedMovesFlags & flag) == 0) {
+            cachedMoves[mark.ordinal()] = mark == Mark.BLACK ? BitBoard.generateMoves(black, white) : BitBoard.generateMoves(white, black);
+            cachedMovesFlags |= flag;
+        }
+        return cachedMoves[mark.ordinal()];
     }
 
     /**
@@ -308,17 +328,8 @@ public class OthelloGame implements Game {
      */
     @Override
     public List<Move> getValidMoves() {
-        List<Move> validMoves = new ArrayList<>();
         Mark currentMark = playerIndex == 0 ? Mark.BLACK : Mark.WHITE;
-        for (int i = 0; i < Board.TOTALDIM; i++) {
-            for (int j = 0; j < Board.DIM; j++) {
-                Move currentMove = new OthelloMove(currentMark, board.index(i, j));
-                if (isValidMove(currentMove)) {
-                    validMoves.add(currentMove);
-                }
-            }
-        }
-        return validMoves;
+        return toMoveList(getValidMovesMask(), currentMark);
     }
 
     /**
@@ -327,18 +338,21 @@ public class OthelloGame implements Game {
      */
     @Override
     public List<Move> getOpponentValidMoves() {
-        List<Move> validMoves = new ArrayList<>();
-        Mark currentMark = playerIndex == 0 ? Mark.BLACK : Mark.WHITE;
-        swapTurn();
-        for (int i = 0; i < Board.TOTALDIM; i++) {
-            for (int j = 0; j < Board.DIM; j++) {
-                Move currentMove = new OthelloMove(currentMark.otherMark(), board.index(i, j));
-                if (isValidMove(currentMove)) {
-                    validMoves.add(currentMove);
-                }
-            }
+        Mark opponentMark = playerIndex == 0 ? Mark.WHITE : Mark.BLACK;
+        return toMoveList(getValidMovesMask(opponentMark), opponentMark);
+    }
+
+    /**
+     * Decodes a bitboard of valid moves into a list of moves, ordered by increasing index.
+     * @param moves the bitboard of the valid moves.
+     * @param mark the mark of the player making the moves.
+     * @return a list of valid moves.
+     */
+    private List<Move> toMoveList(long moves, Mark mark) {
+        List<Move> validMoves = new ArrayList<>(Long.bitCount(moves));
+        for (; moves != 0; moves &= moves - 1) {
+            validMoves.add(OthelloMove.of(mark, Long.numberOfTrailingZeros(moves)));
         }
-        swapTurn();
         return validMoves;
     }
 
@@ -348,15 +362,13 @@ public class OthelloGame implements Game {
      */
     @Override
     public void flip(int index) {
-        if (board.getField(index) == Mark.BLACK) {
-            board.setField(index, Mark.WHITE);
-        } else if (board.getField(index) == Mark.WHITE) {
-            board.setField(index, Mark.BLACK);
-        }
+        board.flipField(index);
     }
 
     /**
      * Performs the specified move on the board.
+     * <p>
+     * The discs to flip are computed at once as a bitboard, so executing a move doesn't allocate any object. A pass (see {@link OthelloMove#isPass()}) or any other move outside the board only swaps the turn, and can be undone like any other move.
      * @param move the move to perform.
      */
     @Override
@@ -365,229 +377,77 @@ public class OthelloGame implements Game {
         if (othelloMove == null) {
             return;
         }
-        board.setField(board.index(othelloMove.getIndex() / Board.DIM, othelloMove.getIndex() % Board.DIM), othelloMove.getMark());
-        swapTurn();
-        int row = othelloMove.getIndex() / Board.DIM;
-        int col = othelloMove.getIndex() % Board.DIM;
-        Mark currentMark = othelloMove.getMark();
-        Mark opponentMark = currentMark.otherMark();
-        this.fieldsToFlipList.clear();
-
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            int i = row - 1;
-            int j = col - 1;
-            while (i >= 0 && j >= 0) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(i, j));
-                }
-                i--;
-                j--;
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
-
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            for (int i = row - 1; i >= 0; i--) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, col)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(i, col)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(i, col));
-                }
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
-
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            int i = row - 1;
-            int j = col + 1;
-            while (i >= 0 && j < Board.DIM) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(i, j));
-                }
-                i--;
-                j++;
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
-
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            for (int j = col + 1; j < Board.DIM; j++) {
-                if (firstCheck) {
-                    if (board.getField(board.index(row, j)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(row, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(row, j));
-                }
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
+        play(othelloMove.getIndex(), othelloMove.getMark());
+    }
 
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            int i = row + 1;
-            int j = col + 1;
-            while (i < Board.DIM && j < Board.DIM) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(i, j));
-                }
-                i++;
-                j++;
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
+    /**
+     * Performs a move of the current player at the specified index, without creating a move object.
+     * @param index the index of the move to perform.
+     */
+    @Override
+    public void doMove(int index) {
+        play(index, playerIndex == 0 ? Mark.BLACK : Mark.WHITE);
+    }
 
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            for (int i = row + 1; i < Board.DIM; i++) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, col)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(i, col)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(i, col));
-                }
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
+    /**
+     * Places a disc with the specified mark at the specified index, flips the discs closed by it and swaps the turn, recording the move on the undo stack.
+     * @param index the index of the move.
+     * @param mark the mark of the disc to place.
+     */
+    private void play(int index, Mark mark) {
+        long flips = 0;
+        if (board.isField(index)) {
+            flips = BitBoard.computeFlips(index, board.getDiscs(mark), board.getDiscs(mark.otherMark()));
+        }
+        pushUndoRecord(index, flips);
+        board.setField(index, mark);
+        board.flipFields(flips);
+        swapTurn();
+    }
 
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            int i = row + 1;
-            int j = col - 1;
-            while (i < Board.DIM && j >= 0) {
-                if (firstCheck) {
-                    if (board.getField(board.index(i, j)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(i, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(i, j));
-                }
-                i++;
-                j--;
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
+    /**
+     * Undoes the last move executed by {@link #doMove(Move)}, restoring the discs on the board and the current player.
+     * <p>
+     * The position is restored from a compact undo record, so a search can execute and undo moves on a single game instead of copying the game for each move.
+     * @throws IllegalStateException if there is no move to undo.
+     */
+    @Override
+    public void undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("There is no move to undo!");
+        }
+        undoSize--;
+        board.setDiscs(undoBlack[undoSize], undoWhite[undoSize], undoHash[undoSize], undoBlackSquares[undoSize], undoWhiteSquares[undoSize]);
+        playerIndex = undoPlayerIndex[undoSize];
+        fieldsToFlipList = null;
+    }
 
-        {
-            List<Integer> fieldsToFlip = new ArrayList<>();
-            boolean firstCheck = false, stop = false;
-            for (int j = col - 1; j >= 0; j--) {
-                if (firstCheck) {
-                    if (board.getField(board.index(row, j)) == currentMark) {
-                        stop = true;
-                        break;
-                    }
-                }
-                if (board.getField(board.index(row, j)) != opponentMark) {
-                    break;
-                } else {
-                    firstCheck = true;
-                    fieldsToFlip.add(board.index(row, j));
-                }
-            }
-            if (stop) {
-                for (Integer index : fieldsToFlip) {
-                    flip(index);
-                }
-                fieldsToFlipList.add(fieldsToFlip);
-            }
-        }
+    /**
+     * Saves the current discs, the current player and the move about to be executed on the undo stack, growing the stack if it is full.
+     * @param index the index of the move.
+     * @param flips the bitboard of the discs flipped by the move.
+     */
+    private void pushUndoRecord(int index, long flips) {
+        if (undoSize == undoBlack.length) {
+            undoBlack = Arrays.copyOf(undoBlack, 2 * undoSize);
+            undoWhite = Arrays.copyOf(undoWhite, 2 * undoSize);
+            undoPlayerIndex = Arrays.copyOf(undoPlayerIndex, 2 * undoSize);
+            undoHash = Arrays.copyOf(undoHash, 2 * undoSize);
+            undoBlackSquares = Arrays.copyOf(undoBlackSquares, 2 * undoSize);
+            undoWhiteSquares = Arrays.copyOf(undoWhiteSquares, 2 * undoSize);
+            undoIndex = Arrays.copyOf(undoIndex, 2 * undoSize);
+            undoFlips = Arrays.copyOf(undoFlips, 2 * undoSize);
+        }
+        undoBlack[undoSize] = board.getDiscs(Mark.BLACK);
+        undoWhite[undoSize] = board.getDiscs(Mark.WHITE);
+        undoPlayerIndex[undoSize] = playerIndex;
+        undoHash[undoSize] = board.getHash();
+        undoBlackSquares[undoSize] = board.getSquareScore(Mark.BLACK);
+        undoWhiteSquares[undoSize] = board.getSquareScore(Mark.WHITE);
+        undoIndex[undoSize] = index;
+        undoFlips[undoSize] = flips;
+        undoSize++;
+        fieldsToFlipList = null;
     }
 
     /**
@@ -596,7 +456,7 @@ public class OthelloGame implements Game {
      */
     @Override
     public boolean isGameOver() {
-        return getValidMoves().isEmpty() && getOpponentValidMoves().isEmpty();
+        return getValidMovesMask(Mark.BLACK) == 0 && getValidMovesMask(Mark.WHITE) == 0;
     }
 
     /**
@@ -638,129 +498,29 @@ public class OthelloGame implements Game {
      * Calculates the heuristic score of the current game state.
      * <p>
      * The heuristic considers 4 factors: disc parity, mobility, captured corners, and stability.
+     * <p>
+     * The disc parity is read from the disc-square scores kept up to date by the board as discs are placed and flipped, instead of being recomputed from the whole board. The mobility (valid moves and potential mobility) and the stability are computed on bitboards with a few shifts and {@code Long.bitCount} calls.
      * @return the heuristic score of the current game state.
      */
     @Override
     public double calculateHeuristicScore() {
         double totalScore = 0;
-        int[] adjX = {-1, -1, -1, 0, 1, 1, 1, 0};
-        int[] adjY = {-1, 0, 1, 1, 1, 0, -1, -1};
-        double[] cellValue = {4, -3, 2, 2, 2, 2, -3, 4,
-            -3, -4, -1, -1, -1, -1, -4, -3,
-            2, -1, 1, 0, 0, 1, -1, 2,
-            2, -1, 0, 1, 1, 0, -1, 2,
-            2, -1, 0, 1, 1, 0, -1, 2,
-            2, -1, 1, 0, 0, 1, -1, 2,
-            -3, -4, -1, -1, -1, -1, -4, -3,
-            4, -3, 2, 2, 2, 2, -3, 4};
-        if (board.getField(board.index(0, 0)) != Mark.EMPTY) {
-            cellValue[1] = 0;
-            cellValue[2] = 0;
-            cellValue[3] = 0;
-            cellValue[8] = 0;
-            cellValue[9] = 0;
-            cellValue[10] = 0;
-            cellValue[11] = 0;
-            cellValue[16] = 0;
-            cellValue[17] = 0;
-            cellValue[18] = 0;
-            cellValue[24] = 0;
-            cellValue[25] = 0;
-        }
-        if (board.getField(board.index(0, 7)) != Mark.EMPTY) {
-            cellValue[4] = 0;
-            cellValue[5] = 0;
-            cellValue[6] = 0;
-            cellValue[12] = 0;
-            cellValue[13] = 0;
-            cellValue[14] = 0;
-            cellValue[15] = 0;
-            cellValue[21] = 0;
-            cellValue[22] = 0;
-            cellValue[23] = 0;
-            cellValue[30] = 0;
-            cellValue[31] = 0;
-        }
-        if (board.getField(board.index(7, 0)) != Mark.EMPTY) {
-            cellValue[32] = 0;
-            cellValue[33] = 0;
-            cellValue[40] = 0;
-            cellValue[41] = 0;
-            cellValue[42] = 0;
-            cellValue[48] = 0;
-            cellValue[49] = 0;
-            cellValue[50] = 0;
-            cellValue[51] = 0;
-            cellValue[57] = 0;
-            cellValue[58] = 0;
-            cellValue[59] = 0;
-        }
-        if (board.getField(board.index(7, 7)) != Mark.EMPTY) {
-            cellValue[38] = 0;
-            cellValue[39] = 0;
-            cellValue[45] = 0;
-            cellValue[46] = 0;
-            cellValue[47] = 0;
-            cellValue[52] = 0;
-            cellValue[53] = 0;
-            cellValue[54] = 0;
-            cellValue[55] = 0;
-            cellValue[60] = 0;
-            cellValue[61] = 0;
-            cellValue[62] = 0;
-        }
         double discsParity;
-        double blackDiscsParity = 0, whiteDiscsParity = 0;
-        for (int i = 0; i < Board.TOTALDIM; i++) {
-            if (board.getField(i) == Mark.BLACK) {
-                blackDiscsParity += cellValue[i];
-            } else if (board.getField(i) == Mark.WHITE) {
-                whiteDiscsParity += cellValue[i];
-            }
-        }
+        double blackDiscsParity = board.getSquareScore(Mark.BLACK);
+        double whiteDiscsParity = board.getSquareScore(Mark.WHITE);
         if (blackDiscsParity + whiteDiscsParity != 0) {
             discsParity = (blackDiscsParity - whiteDiscsParity) / (blackDiscsParity + whiteDiscsParity);
         } else {
             discsParity = 0;
         }
         double mobility;
-        double blackMoveMobility = 0, whiteMoveMobility = 0;
-        int currentPlayerIndex = playerIndex;
-        playerIndex = 0;
-        blackMoveMobility += 2.5 * getValidMoves().size();
-        playerIndex = 1;
-        whiteMoveMobility += 2.5 * getValidMoves().size();
-        playerIndex = currentPlayerIndex;
-        for (int i = 0; i < Board.DIM; i++) {
-            for (int j = 0; j < Board.DIM; j++) {
-                currentPlayerIndex = playerIndex;
-                playerIndex = 0;
-                Move blackMove = new OthelloMove(Mark.BLACK, board.index(i, j));
-                if (board.getField(board.index(i, j)) == Mark.EMPTY && !isValidMove(blackMove)) {
-                    for (int k = 0; k < 8; k++) {
-                        int curX = i + adjX[k], curY = j + adjY[k];
-                        if (board.isField(board.index(curX, curY))) {
-                            if (board.getField(board.index(curX, curY)) == Mark.WHITE) {
-                                blackMoveMobility++;
-                            }
-                        }
-                    }
-                }
-                playerIndex = 1;
-                Move whiteMove = new OthelloMove(Mark.WHITE, board.index(i, j));
-                if (board.getField(board.index(i, j)) == Mark.EMPTY && !isValidMove(whiteMove)) {
-                    for (int k = 0; k < 8; k++) {
-                        int curX = i + adjX[k], curY = j + adjY[k];
-                        if (board.isField(board.index(curX, curY))) {
-                            if (board.getField(board.index(curX, curY)) == Mark.BLACK) {
-                                whiteMoveMobility++;
-                            }
-                        }
-                    }
-                }
-                playerIndex = currentPlayerIndex;
-            }
-        }
+        long blackMoves = getValidMovesMask(Mark.BLACK);
+        long whiteMoves = getValidMovesMask(Mark.WHITE);
+        long empty = board.getDiscs(Mark.EMPTY);
+        double blackMoveMobility = 2.5 * Long.bitCount(blackMoves)
+                + BitBoard.countPotentialMobility(board.getDiscs(Mark.WHITE), empty & ~blackMoves);
+        double whiteMoveMobility = 2.5 * Long.bitCount(whiteMoves)
+                + BitBoard.countPotentialMobility(board.getDiscs(Mark.BLACK), empty & ~whiteMoves);
         if (blackMoveMobility + whiteMoveMobility != 0) {
             mobility = (blackMoveMobility - whiteMoveMobility) / (blackMoveMobility + whiteMoveMobility);
         } else {
@@ -768,29 +528,17 @@ public class OthelloGame implements Game {
         }
         double capturedCorners;
         double blackCorners = 0, whiteCorners = 0;
-        int[] cornerXIndex = {0, 0, 7, 7};
-        int[] cornerYIndex = {0, 7, 0, 7};
-        for (int i = 0; i < 4; i++) {
-            if (board.getField(board.index(cornerXIndex[i], cornerYIndex[i])) == Mark.BLACK) {
-                blackCorners += 3;
-            }
-            if (board.getField(board.index(cornerXIndex[i], cornerYIndex[i])) == Mark.WHITE) {
-                whiteCorners += 3;
-            }
-        }
+        long corners = (1L << board.index(0, 0)) | (1L << board.index(0, 7)) | (1L << board.index(7, 0)) | (1L << board.index(7, 7));
+        blackCorners += 3 * Long.bitCount(board.getDiscs(Mark.BLACK) & corners);
+        whiteCorners += 3 * Long.bitCount(board.getDiscs(Mark.WHITE) & corners);
         if (blackCorners + whiteCorners != 0) {
             capturedCorners = (blackCorners - whiteCorners) / (blackCorners + whiteCorners);
         } else {
             capturedCorners = 0;
         }
         double stability;
-        double blackDiscsStability = 0, whiteDiscsStability = 0;
-        for (int i = 0; i < Board.DIM; i++) {
-            for (int j = 0; j < Board.DIM; j++) {
-                blackDiscsStability += board.checkStability(Mark.BLACK, i, j);
-                whiteDiscsStability += board.checkStability(Mark.WHITE, i, j);
-            }
-        }
+        double blackDiscsStability = Long.bitCount(board.getStableDiscs(Mark.BLACK));
+        double whiteDiscsStability = Long.bitCount(board.getStableDiscs(Mark.WHITE));
         if (blackDiscsStability + whiteDiscsStability != 0) {
             stability = (blackDiscsStability - whiteDiscsStability) / (blackDiscsStability + whiteDiscsStability);
         } else {
@@ -820,10 +568,35 @@ public class OthelloGame implements Game {
 
     /**
      * Retrieves the list of fields to flip for the last move.
+     * <p>
+     * The list is built from the bitboard of the flipped discs the first time it's requested after a move. It contains one inner list per direction in which discs were flipped, each ordered from the field of the move outwards.
      * @return the list of fields to flip.
      */
     @Override
     public List<List<Integer>> getFieldsToFlipList() {
-        return this.fieldsToFlipList;
+        if (fieldsToFlipList == null) {
+            fieldsToFlipList = new ArrayList<>();
+            if (undoSize > 0 && undoFlips[undoSize - 1] != 0) {
+                int[] adjX = {-1, -1, -1, 0, 1, 1, 1, 0};
+                int[] adjY = {-1, 0, 1, 1, 1, 0, -1, -1};
+                int row = undoIndex[undoSize - 1] / Board.DIM;
+                int col = undoIndex[undoSize - 1] % Board.DIM;
+                long flips = undoFlips[undoSize - 1];
+                for (int k = 0; k < 8; k++) {
+                    List<Integer> fieldsToFlip = new ArrayList<>();
+                    int i = row + adjX[k];
+                    int j = col + adjY[k];
+                    while (i >= 0 && i < Board.DIM && j >= 0 && j < Board.DIM && (flips & (1L << board.index(i, j))) != 0) {
+                        fieldsToFlip.add(board.index(i, j));
+                        i += adjX[k];
+                        j += adjY[k];
+                    }
+                    if (!fieldsToFlip.isEmpty()) {
+                        fieldsToFlipList.add(fieldsToFlip);
+                    }
+                }
+            }
+        }
+        return fieldsToFlipList;
     }
-}
\ No newline at end of file
+}
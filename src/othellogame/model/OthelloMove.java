@@ -3,25 +3,46 @@ package othellogame.model;
 /**
  * Represents a move in the Othello game.
  * <p>
- * Each move is associated with a player's mark and the index where the move is made on the game board.
+ * Each move is associated with a player's mark and the index where the move is made on the game board. The index {@link #PASS_INDEX} (64) represents a pass, used when the player has no valid move.
+ * <p>
+ * Moves are immutable, and there are only 2 x 65 distinct moves with a mark BLACK or WHITE, so {@link #of(Mark, int)} returns a shared canonical instance instead of creating a new object for each move. Moves can be compared with {@code equals} and used as keys of maps.
  * @author Dinh Thuy Nhat Vy
  * @version 1.0, 12/07/2023
  * @see Move
  * @see Mark
  */
 public class OthelloMove implements Move {
+    /**
+     * The index representing a pass, which is right after the last field of the board.
+     */
+    public static final int PASS_INDEX = Board.TOTALDIM;
+
+    /**
+     * The canonical moves, indexed by the ordinal of the mark (BLACK or WHITE) and the index of the move (including the pass).
+     */
+    private static final OthelloMove[][] MOVES = new OthelloMove[2][PASS_INDEX + 1];
+
+    static {
+        for (int i = 0; i <= PASS_INDEX; i++) {
+            MOVES[Mark.BLACK.ordinal()][i] = new OthelloMove(Mark.BLACK, i);
+            MOVES[Mark.WHITE.ordinal()][i] = new OthelloMove(Mark.WHITE, i);
+        }
+    }
+
     /**
      * The player's mark associated with this move (BLACK or WHITE).
      */
-    private Mark mark;
+    private final Mark mark;
 
     /**
      * The index on the game board where the move is made.
      */
-    private int index;
+    private final int index;
 
     /**
      * Constructs an {@code OthelloMove} object with the specified player's mark and board index.
+     * <p>
+     * Prefer {@link #of(Mark, int)}, which returns a shared instance instead of creating a new object.
      * @param mark the player's mark (BLACK or WHITE).
      * @param index the index on the game board where the move is made.
      */
@@ -30,6 +51,30 @@ public class OthelloMove implements Move {
         this.index = index;
     }
 
+    /**
+     * Gets the canonical move with the specified player's mark and board index.
+     * <p>
+     * For a mark BLACK or WHITE and an index between 0 and {@link #PASS_INDEX}, the same shared instance is always returned. Other combinations (for example an out-of-range index received from a client) get a new object, so they can still be rejected as invalid moves.
+     * @param mark the player's mark (BLACK or WHITE).
+     * @param index the index on the game board where the move is made.
+     * @return the move with the specified mark and index.
+     */
+    public static OthelloMove of(Mark mark, int index) {
+        if (mark != Mark.EMPTY && mark != null && index >= 0 && index <= PASS_INDEX) {
+            return MOVES[mark.ordinal()][index];
+        }
+        return new OthelloMove(mark, index);
+    }
+
+    /**
+     * Gets the pass move of the player with the specified mark.
+     * @param mark the player's mark (BLACK or WHITE).
+     * @return the pass move of the player.
+     */
+    public static OthelloMove pass(Mark mark) {
+        return of(mark, PASS_INDEX);
+    }
+
     /**
      * Gets the player's mark associated with this move.
      * @return the player's mark.
@@ -45,4 +90,47 @@ public class OthelloMove implements Move {
     public int getIndex() {
         return index;
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if this move is a pass.
+     * @return true if the index of the move is {@link #PASS_INDEX}, false otherwise.
+     */
+    public boolean isPass() {
+        return index == PASS_INDEX;
+    }
+
+    /**
+     * Checks if this move is equal to another object.
+     * @param o the object to compare with.
+     * @return true if the object is a move with the same mark and index, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OthelloMove)) {
+            return false;
+        }
+        OthelloMove other = (OthelloMove) o;
+        return mark == other.mark && index == other.index;
+    }
+
+    /**
+     * Gets the hash code of the move.
+     * @return the hash code, computed from the mark and the index.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (mark == null ? 0 : mark.ordinal() + 1) + index;
+    }
+
+    /**
+     * Returns a string representation of the move.
+     * @return a string containing the mark and the index of the move.
+     */
+    @Override
+    public String toString() {
+        return "Move " + index + " (" + mark + ")";
+    }
+}
@@ -0,0 +1,334 @@
+package othellogame.model;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Enumerates the full game tree of an Othello position to a fixed depth ("perft"), to check the move generator and measure its speed.
+ * <p>
+ * Every valid move of every position is executed and undone with {@link Game#doMove(int)} and {@link Game#undoMove()}. A pass counts as a move when the player to move has no valid move but the opponent has, and a position where neither player has a valid move is a game end, which counts as a leaf even before the requested depth. The number of leaves is a fixed number for each position and depth, so any change to it shows a bug in the move generator; from the start position the leaves are 4, 12, 56, 244, 1396, 8200, 55092 and 390216 for depths 1 to 8, and 24571284 for depth 10, the first depth with game ends.
+ * <p>
+ * The tree can be walked by a single thread or split into fork-join tasks, which gives the same counts. Running the class prints both, with the number of nodes per second.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Game
+ * @see OthelloGame
+ */
+public final class Perft {
+    /**
+     * The depth under which a fork-join task walks its subtree on its own thread instead of forking a task per move.
+     */
+    private static final int SEQUENTIAL_DEPTH = 5;
+
+    /**
+     * The default depth of the command-line tool.
+     */
+    private static final int DEFAULT_DEPTH = 9;
+
+    /**
+     * The number of positions at the requested depth, plus the game ends before it.
+     */
+    private long leaves;
+
+    /**
+     * The number of passes in the tree.
+     */
+    private long passes;
+
+    /**
+     * The number of game ends before the requested depth.
+     */
+    private long gameEnds;
+
+    /**
+     * The number of positions visited, including the root and the leaves.
+     */
+    private long nodes;
+
+    /**
+     * Constructs a {@code Perft} with all counts at 0.
+     */
+    private Perft() {}
+
+    /**
+     * Represents the counts and the running time of a perft run.
+     * @author Dinh Thuy Nhat Vy
+     * @version 1.0, 12/07/2023
+     * @see Perft
+     */
+    public static final class Result {
+        /**
+         * The depth of the run.
+         */
+        private final int depth;
+
+        /**
+         * The number of positions at the requested depth, plus the game ends before it.
+         */
+        private final long leaves;
+
+        /**
+         * The number of passes in the tree.
+         */
+        private final long passes;
+
+        /**
+         * The number of game ends before the requested depth.
+         */
+        private final long gameEnds;
+
+        /**
+         * The number of positions visited, including the root and the leaves.
+         */
+        private final long nodes;
+
+        /**
+         * The running time in nanoseconds.
+         */
+        private final long nanos;
+
+        /**
+         * Constructs a {@code Result} with the counts of a run.
+         * @param depth the depth of the run.
+         * @param counts the counts of the run.
+         * @param nanos the running time in nanoseconds.
+         */
+        private Result(int depth, Perft counts, long nanos) {
+            this.depth = depth;
+            this.leaves = counts.leaves;
+            this.passes = counts.passes;
+            this.gameEnds = counts.gameEnds;
+            this.nodes = counts.nodes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the depth of the run.
+         * @return the depth of the run.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Gets the number of positions at the requested depth, including the game ends before it.
+         * @return the number of leaves.
+         */
+        public long getLeaves() {
+            return leaves;
+        }
+
+        /**
+         * Gets the number of passes in the tree.
+         * @return the number of passes.
+         */
+        public long getPasses() {
+            return passes;
+        }
+
+        /**
+         * Gets the number of game ends before the requested depth.
+         * @return the number of game ends.
+         */
+        public long getGameEnds() {
+            return gameEnds;
+        }
+
+        /**
+         * Gets the number of positions visited, including the root and the leaves.
+         * @return the number of nodes.
+         */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Gets the running time of the run.
+         * @return the running time in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Gets the speed of the run.
+         * @return the number of nodes visited per second.
+         */
+        public double getNodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+        }
+
+        /**
+         * Returns a string representation of the result.
+         * @return a string containing the counts, the running time and the speed of the run.
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "depth %d: %d leaves, %d passes, %d game ends, %d nodes in %.1f ms (%.0f nodes/s)",
+                    depth, leaves, passes, gameEnds, nodes, nanos / 1e6, getNodesPerSecond());
+        }
+    }
+
+    /**
+     * Walks the game tree of a position on the current thread.
+     * @param game the game in the position to start from, which is restored before returning.
+     * @param depth the number of moves (including passes) to enumerate.
+     * @return the counts and the running time of the run.
+     */
+    public static Result run(Game game, int depth) {
+        long start = System.nanoTime();
+        Perft counts = new Perft();
+        counts.walk(game, depth);
+        return new Result(depth, counts, System.nanoTime() - start);
+    }
+
+    /**
+     * Walks the game tree of a position with fork-join tasks in the common pool.
+     * @param game the game in the position to start from, which is not changed.
+     * @param depth the number of moves (including passes) to enumerate.
+     * @return the counts and the running time of the run, which are the same as for {@link #run(Game, int)}.
+     */
+    public static Result runParallel(Game game, int depth) {
+        return runParallel(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Walks the game tree of a position with fork-join tasks in the specified pool.
+     * @param game the game in the position to start from, which is not changed.
+     * @param depth the number of moves (including passes) to enumerate.
+     * @param pool the pool running the tasks.
+     * @return the counts and the running time of the run, which are the same as for {@link #run(Game, int)}.
+     */
+    public static Result runParallel(Game game, int depth, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Perft counts = pool.invoke(new PerftTask(game.deepCopy(), depth));
+        return new Result(depth, counts, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the positions of the game tree below a position, executing and undoing the moves on the game.
+     * @param game the game in the position to walk, which is restored before returning.
+     * @param depth the remaining number of moves to enumerate.
+     */
+    private void walk(Game game, int depth) {
+        nodes++;
+        if (depth == 0) {
+            leaves++;
+            return;
+        }
+        long moves = game.getValidMovesMask();
+        if (moves == 0) {
+            game.swapTurn();
+            if (game.getValidMovesMask() == 0) {
+                gameEnds++;
+                leaves++;
+            } else {
+                passes++;
+                walk(game, depth - 1);
+            }
+            game.swapTurn();
+            return;
+        }
+        for (; moves != 0; moves &= moves - 1) {
+            game.doMove(Long.numberOfTrailingZeros(moves));
+            walk(game, depth - 1);
+            game.undoMove();
+        }
+    }
+
+    /**
+     * Adds the counts of another run to the counts of this run.
+     * @param other the counts to add.
+     */
+    private void add(Perft other) {
+        leaves += other.leaves;
+        passes += other.passes;
+        gameEnds += other.gameEnds;
+        nodes += other.nodes;
+    }
+
+    /**
+     * Represents a fork-join task counting the game tree below a position, forking one task per move until the remaining depth is small.
+     * @author Dinh Thuy Nhat Vy
+     * @version 1.0, 12/07/2023
+     * @see Perft
+     */
+    private static final class PerftTask extends RecursiveTask<Perft> {
+        /**
+         * Custom serialization ID to control versioning of the class during deserialization.
+         */
+        @Serial
+        private static final long serialVersionUID = 230720235L;
+
+        /**
+         * The game in the position to walk, owned by this task.
+         */
+        private final OthelloGame game;
+
+        /**
+         * The remaining number of moves to enumerate.
+         */
+        private final int depth;
+
+        /**
+         * Constructs a {@code PerftTask} for the specified position and depth.
+         * @param game the game in the position to walk, which is owned by the task.
+         * @param depth the remaining number of moves to enumerate.
+         */
+        private PerftTask(OthelloGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        /**
+         * Counts the game tree below the position of the task.
+         * @return the counts of the subtree.
+         */
+        @Override
+        protected Perft compute() {
+            Perft counts = new Perft();
+            if (depth <= SEQUENTIAL_DEPTH) {
+                counts.walk(game, depth);
+                return counts;
+            }
+            counts.nodes++;
+            long moves = game.getValidMovesMask();
+            List<PerftTask> tasks = new ArrayList<>();
+            if (moves == 0) {
+                OthelloGame child = game.deepCopy();
+                child.swapTurn();
+                if (child.getValidMovesMask() == 0) {
+                    counts.gameEnds++;
+                    counts.leaves++;
+                } else {
+                    counts.passes++;
+                    tasks.add(new PerftTask(child, depth - 1));
+                }
+            }
+            for (; moves != 0; moves &= moves - 1) {
+                OthelloGame child = game.deepCopy();
+                child.doMove(Long.numberOfTrailingZeros(moves));
+                tasks.add(new PerftTask(child, depth - 1));
+            }
+            for (PerftTask task : invokeAll(tasks)) {
+                counts.add(task.join());
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Runs perft from the start position, first on a single thread and then with fork-join tasks, and prints the results.
+     * @param args the depth to enumerate (9 by default).
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        OthelloGame game = new OthelloGame(new HumanPlayer("Black", Mark.BLACK), new HumanPlayer("White", Mark.WHITE));
+        Result single = run(game, depth);
+        System.out.println("Single thread: " + single);
+        Result parallel = runParallel(game, depth);
+        System.out.println("Fork-join (" + ForkJoinPool.commonPool().getParallelism() + " threads): " + parallel);
+        System.out.printf(Locale.ROOT, "Speedup: %.2f%n", (double) single.getNanos() / parallel.getNanos());
+    }
+}
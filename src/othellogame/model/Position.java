@@ -0,0 +1,243 @@
+package othellogame.model;
+
+/**
+ * Represents an immutable snapshot of an Othello position: the black discs, the white discs and the player to move.
+ * <p>
+ * Unlike {@link OthelloGame} and {@link Board}, a position never changes after it's created, so any number of threads (for example the server's client handlers, a computer player and an analysis thread) can read the same instance concurrently without copying or locking. Executing a move returns a new position instead of modifying this one.
+ * <p>
+ * A position is only 2 bitboards, the player to move and the Zobrist hash, which makes it cheap to create and to compare.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see OthelloGame
+ * @see Board
+ * @see BitBoard
+ */
+public final class Position {
+    /**
+     * The bitboard of the black discs.
+     */
+    private final long black;
+
+    /**
+     * The bitboard of the white discs.
+     */
+    private final long white;
+
+    /**
+     * The index of the player to move: 0 for the first player (mark BLACK), 1 for the second player (mark WHITE).
+     */
+    private final int playerIndex;
+
+    /**
+     * The Zobrist hash of the position, including the player to move.
+     */
+    private final long hash;
+
+    /**
+     * Constructs a {@code Position} with the specified discs and player to move.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs, which must not overlap with the black discs.
+     * @param playerIndex the index of the player to move (0 for BLACK, 1 for WHITE).
+     * @throws IllegalArgumentException if the discs overlap or the player index is neither 0 nor 1.
+     */
+    public Position(long black, long white, int playerIndex) {
+        this(black, white, playerIndex, Zobrist.hash(black, white) ^ (playerIndex == 0 ? 0 : Zobrist.SIDE_KEY));
+        if ((black & white) != 0) {
+            throw new IllegalArgumentException("A field cannot contain both a black and a white disc!");
+        }
+        if (playerIndex != 0 && playerIndex != 1) {
+            throw new IllegalArgumentException("The player index must be 0 or 1!");
+        }
+    }
+
+    /**
+     * Constructs a {@code Position} with an already computed hash.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs.
+     * @param playerIndex the index of the player to move.
+     * @param hash the Zobrist hash of the position.
+     */
+    Position(long black, long white, int playerIndex, long hash) {
+        this.black = black;
+        this.white = white;
+        this.playerIndex = playerIndex;
+        this.hash = hash;
+    }
+
+    /**
+     * Gets the bitboard of the fields occupied by the specified mark.
+     * @param m the mark to retrieve the bitboard for.
+     * @return the bitboard of the discs with the specified mark, or the bitboard of the empty fields for {@code Mark.EMPTY}.
+     */
+    public long getDiscs(Mark m) {
+        if (m == Mark.BLACK) {
+            return black;
+        } else if (m == Mark.WHITE) {
+            return white;
+        } else {
+            return ~(black | white);
+        }
+    }
+
+    /**
+     * Gets the mark at the specified index.
+     * @param index the one-dimensional index to retrieve the mark from.
+     * @return the mark at the specified index.
+     */
+    public Mark getField(int index) {
+        if (index < 0 || index >= Board.TOTALDIM) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        long bit = 1L << index;
+        if ((black & bit) != 0) {
+            return Mark.BLACK;
+        } else if ((white & bit) != 0) {
+            return Mark.WHITE;
+        } else {
+            return Mark.EMPTY;
+        }
+    }
+
+    /**
+     * Counts the fields occupied by the specified mark.
+     * @param m the mark to count.
+     * @return the number of fields with the specified mark.
+     */
+    public int countDiscs(Mark m) {
+        return Long.bitCount(getDiscs(m));
+    }
+
+    /**
+     * Checks if it's the first player's turn.
+     * @return true if the player to move has the mark BLACK, false otherwise.
+     */
+    public boolean isFirstPlayerTurn() {
+        return playerIndex == 0;
+    }
+
+    /**
+     * Gets the mark of the player to move.
+     * @return the mark of the player to move.
+     */
+    public Mark getTurnMark() {
+        return playerIndex == 0 ? Mark.BLACK : Mark.WHITE;
+    }
+
+    /**
+     * Gets the Zobrist hash of the position, which is the same as the hash of an {@link OthelloGame} in this position.
+     * @return the hash of the position.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Generates the valid moves of the player to move.
+     * @return the bitboard of the valid moves.
+     */
+    public long getValidMovesMask() {
+        return playerIndex == 0 ? BitBoard.generateMoves(black, white) : BitBoard.generateMoves(white, black);
+    }
+
+    /**
+     * Checks if the game is over in this position, which means neither player has a valid move.
+     * @return true if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return BitBoard.generateMoves(black, white) == 0 && BitBoard.generateMoves(white, black) == 0;
+    }
+
+    /**
+     * Creates the position after the player to move plays at the specified index.
+     * <p>
+     * The move is not validated: the disc is placed and every line of opponent discs closed by it is flipped.
+     * @param index the index of the move.
+     * @return the new position, with the turn given to the other player.
+     * @throws IllegalArgumentException if the index is not an empty field of the board.
+     */
+    public Position play(int index) {
+        if (index < 0 || index >= Board.TOTALDIM || ((black | white) & (1L << index)) != 0) {
+            throw new IllegalArgumentException(index + " is not an empty field!");
+        }
+        long move = 1L << index;
+        long newHash = hash ^ Zobrist.SIDE_KEY;
+        if (playerIndex == 0) {
+            long flips = BitBoard.computeFlips(index, black, white);
+            newHash ^= Zobrist.BLACK_KEYS[index] ^ flipKeys(flips);
+            return new Position(black | move | flips, white & ~flips, 1, newHash);
+        } else {
+            long flips = BitBoard.computeFlips(index, white, black);
+            newHash ^= Zobrist.WHITE_KEYS[index] ^ flipKeys(flips);
+            return new Position(black & ~flips, white | move | flips, 0, newHash);
+        }
+    }
+
+    /**
+     * Creates the position after the player to move passes.
+     * @return the same discs with the turn given to the other player.
+     */
+    public Position pass() {
+        return new Position(black, white, playerIndex ^ 1, hash ^ Zobrist.SIDE_KEY);
+    }
+
+    /**
+     * Creates the position obtained by applying a symmetry of the board to this position.
+     * @param transform the transform to apply, between 0 and 7 (see {@link Symmetry}).
+     * @return the transformed position, with the same player to move.
+     */
+    public Position transform(int transform) {
+        if (transform == Symmetry.IDENTITY) {
+            return this;
+        }
+        return new Position(Symmetry.transform(black, transform), Symmetry.transform(white, transform), playerIndex);
+    }
+
+    /**
+     * Creates the canonical form of this position, which is the same for all 8 symmetric variants of the position.
+     * <p>
+     * Use {@link Symmetry#canonicalTransform(Position)} to also know which transform was applied, for example to map moves back to this position.
+     * @return the canonical form of the position.
+     */
+    public Position canonical() {
+        return transform(Symmetry.canonicalTransform(this));
+    }
+
+    /**
+     * Computes the XOR of the flip keys of the specified discs.
+     * @param flips the bitboard of the flipped discs.
+     * @return the value to XOR into the hash for the flipped discs.
+     */
+    private static long flipKeys(long flips) {
+        long keys = 0;
+        for (; flips != 0; flips &= flips - 1) {
+            keys ^= Zobrist.FLIP_KEYS[Long.numberOfTrailingZeros(flips)];
+        }
+        return keys;
+    }
+
+    /**
+     * Checks if this position is equal to another object.
+     * @param o the object to compare with.
+     * @return true if the object is a position with the same discs and the same player to move, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Position)) {
+            return false;
+        }
+        Position other = (Position) o;
+        return black == other.black && white == other.white && playerIndex == other.playerIndex;
+    }
+
+    /**
+     * Gets the hash code of the position, derived from its Zobrist hash.
+     * @return the hash code of the position.
+     */
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
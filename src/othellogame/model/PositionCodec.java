@@ -0,0 +1,150 @@
+package othellogame.model;
+
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Encodes Othello positions in a compact binary format, for position files, caches, network snapshots and training data.
+ * <p>
+ * A position is stored as a record of {@link #BYTES} bytes: the bitboard of the black discs and the bitboard of the white discs as 2 longs, followed by 1 byte for the player to move (0 for BLACK, 1 for WHITE). The longs are written in the byte order of the buffer, which is big-endian unless the buffer is configured otherwise, so files should be read with the same order they were written with.
+ * <p>
+ * Unlike {@link Board#toIndexString()}, which produces several kilobytes of coloured text, a record is decoded with 2 reads and a byte check, and records can be encoded and decoded in bulk against a single buffer.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Position
+ * @see OthelloGame
+ */
+public final class PositionCodec {
+    /**
+     * The number of bytes of an encoded position.
+     */
+    public static final int BYTES = 2 * Long.BYTES + 1;
+
+    /**
+     * Private constructor to prevent instantiation of the {@code PositionCodec} utility class.
+     */
+    private PositionCodec() {}
+
+    /**
+     * Writes a position at the current position of a buffer.
+     * @param position the position to encode.
+     * @param buffer the buffer to write to, whose position is advanced by {@link #BYTES}.
+     * @throws BufferOverflowException if the buffer has less than {@link #BYTES} bytes remaining.
+     */
+    public static void encode(Position position, ByteBuffer buffer) {
+        write(buffer, position.getDiscs(Mark.BLACK), position.getDiscs(Mark.WHITE), position.isFirstPlayerTurn());
+    }
+
+    /**
+     * Writes the current position of a game at the current position of a buffer.
+     * <p>
+     * The players and the move history of the game are not encoded.
+     * @param game the game whose position is encoded.
+     * @param buffer the buffer to write to, whose position is advanced by {@link #BYTES}.
+     * @throws BufferOverflowException if the buffer has less than {@link #BYTES} bytes remaining.
+     */
+    public static void encode(Game game, ByteBuffer buffer) {
+        Board board = game.getBoard();
+        write(buffer, board.getDiscs(Mark.BLACK), board.getDiscs(Mark.WHITE), game.isFirstPlayerTurn());
+    }
+
+    /**
+     * Reads a position at the current position of a buffer.
+     * @param buffer the buffer to read from, whose position is advanced by {@link #BYTES}.
+     * @return the decoded position.
+     * @throws BufferUnderflowException if the buffer has less than {@link #BYTES} bytes remaining.
+     * @throws IllegalArgumentException if the record doesn't contain a valid position, in which case the position of the buffer is unchanged.
+     */
+    public static Position decode(ByteBuffer buffer) {
+        if (buffer.remaining() < BYTES) {
+            throw new BufferUnderflowException();
+        }
+        Position position = read(buffer, buffer.position());
+        buffer.position(buffer.position() + BYTES);
+        return position;
+    }
+
+    /**
+     * Writes a list of positions one after another at the current position of a buffer.
+     * @param positions the positions to encode.
+     * @param buffer the buffer to write to, whose position is advanced by {@link #BYTES} for each position.
+     * @throws BufferOverflowException if the buffer doesn't have room for all positions, in which case nothing is written.
+     */
+    public static void encodeAll(List<Position> positions, ByteBuffer buffer) {
+        if (buffer.remaining() / BYTES < positions.size()) {
+            throw new BufferOverflowException();
+        }
+        for (Position position : positions) {
+            encode(position, buffer);
+        }
+    }
+
+    /**
+     * Reads all positions remaining in a buffer.
+     * <p>
+     * The records are read at absolute offsets and the position of the buffer is only advanced once all of them are decoded.
+     * @param buffer the buffer to read from, whose position is advanced to its limit.
+     * @return the decoded positions, in the order they were written.
+     * @throws IllegalArgumentException if the remaining bytes are not a whole number of records or a record doesn't contain a valid position, in which case the position of the buffer is unchanged.
+     */
+    public static List<Position> decodeAll(ByteBuffer buffer) {
+        if (buffer.remaining() % BYTES != 0) {
+            throw new IllegalArgumentException("The buffer doesn't contain a whole number of positions!");
+        }
+        List<Position> positions = new ArrayList<>(buffer.remaining() / BYTES);
+        for (int offset = buffer.position(); offset < buffer.limit(); offset += BYTES) {
+            positions.add(read(buffer, offset));
+        }
+        buffer.position(buffer.limit());
+        return positions;
+    }
+
+    /**
+     * Encodes a position into a new byte array.
+     * @param position the position to encode.
+     * @return an array of {@link #BYTES} bytes containing the position in big-endian order.
+     */
+    public static byte[] toBytes(Position position) {
+        byte[] bytes = new byte[BYTES];
+        encode(position, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Decodes a position from a byte array created by {@link #toBytes(Position)}.
+     * @param bytes the encoded position.
+     * @return the decoded position.
+     * @throws IllegalArgumentException if the array doesn't have exactly {@link #BYTES} bytes or doesn't contain a valid position.
+     */
+    public static Position fromBytes(byte[] bytes) {
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("An encoded position must have " + BYTES + " bytes!");
+        }
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads the record of a position at an absolute offset, without changing the position of the buffer.
+     * @param buffer the buffer to read from.
+     * @param offset the offset of the record in the buffer.
+     * @return the decoded position.
+     * @throws IllegalArgumentException if the record doesn't contain a valid position.
+     */
+    private static Position read(ByteBuffer buffer, int offset) {
+        return new Position(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES), buffer.get(offset + 2 * Long.BYTES));
+    }
+
+    /**
+     * Writes the record of a position.
+     * @param buffer the buffer to write to.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs.
+     * @param firstPlayerTurn whether the player to move has the mark BLACK.
+     */
+    private static void write(ByteBuffer buffer, long black, long white, boolean firstPlayerTurn) {
+        if (buffer.remaining() < BYTES) {
+            throw new BufferOverflowException();
+        }
+        buffer.putLong(black).putLong(white).put((byte) (firstPlayerTurn ? 0 : 1));
+    }
+}
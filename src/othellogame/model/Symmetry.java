@@ -0,0 +1,185 @@
+package othellogame.model;
+
+/**
+ * Provides the 8 symmetries of the Othello board (the dihedral group of the square) as bitboard transforms.
+ * <p>
+ * The starting position of Othello is symmetric, so every position has up to 8 equivalent positions obtained by flipping, mirroring and rotating the board. Storing positions in their canonical form, which is the smallest of the 8 equivalent positions, lets opening books, evaluation caches and position databases share one entry for all of them.
+ * <p>
+ * A transform is encoded as a number between 0 and 7, applied in this order:
+ * <p>
+ * - Bit 2: flip the board along the main diagonal (the field at row "r" and column "c" moves to row "c" and column "r").
+ * <p>
+ * - Bit 0: mirror the board horizontally (the columns are reversed).
+ * <p>
+ * - Bit 1: flip the board vertically (the rows are reversed).
+ * <p>
+ * For example, {@link #IDENTITY} leaves the board unchanged and {@link #ROTATE_CLOCKWISE} rotates it by 90 degrees clockwise.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Position
+ * @see BitBoard
+ */
+public final class Symmetry {
+    /**
+     * The number of symmetries of the board.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * The transform leaving the board unchanged.
+     */
+    public static final int IDENTITY = 0;
+
+    /**
+     * The transform reversing the columns of the board.
+     */
+    public static final int MIRROR_HORIZONTAL = 1;
+
+    /**
+     * The transform reversing the rows of the board.
+     */
+    public static final int FLIP_VERTICAL = 2;
+
+    /**
+     * The transform rotating the board by 180 degrees.
+     */
+    public static final int ROTATE_180 = 3;
+
+    /**
+     * The transform flipping the board along its main diagonal (from the top-left to the bottom-right field).
+     */
+    public static final int FLIP_DIAGONAL = 4;
+
+    /**
+     * The transform rotating the board by 90 degrees clockwise.
+     */
+    public static final int ROTATE_CLOCKWISE = 5;
+
+    /**
+     * The transform rotating the board by 90 degrees counterclockwise.
+     */
+    public static final int ROTATE_COUNTERCLOCKWISE = 6;
+
+    /**
+     * The transform flipping the board along its anti-diagonal (from the top-right to the bottom-left field).
+     */
+    public static final int FLIP_ANTI_DIAGONAL = 7;
+
+    /**
+     * Private constructor to prevent instantiation of the {@code Symmetry} utility class.
+     */
+    private Symmetry() {}
+
+    /**
+     * Reverses the rows of a bitboard.
+     * @param discs the bitboard to flip.
+     * @return the flipped bitboard.
+     */
+    public static long flipVertical(long discs) {
+        return Long.reverseBytes(discs);
+    }
+
+    /**
+     * Reverses the columns of a bitboard.
+     * @param discs the bitboard to mirror.
+     * @return the mirrored bitboard.
+     */
+    public static long mirrorHorizontal(long discs) {
+        discs = ((discs >>> 1) & 0x5555555555555555L) | ((discs & 0x5555555555555555L) << 1);
+        discs = ((discs >>> 2) & 0x3333333333333333L) | ((discs & 0x3333333333333333L) << 2);
+        return ((discs >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((discs & 0x0F0F0F0F0F0F0F0FL) << 4);
+    }
+
+    /**
+     * Flips a bitboard along the main diagonal, swapping rows and columns.
+     * @param discs the bitboard to flip.
+     * @return the flipped bitboard.
+     */
+    public static long flipDiagonal(long discs) {
+        long t = 0x0F0F0F0F00000000L & (discs ^ (discs << 28));
+        discs ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (discs ^ (discs << 14));
+        discs ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (discs ^ (discs << 7));
+        return discs ^ t ^ (t >>> 7);
+    }
+
+    /**
+     * Rotates a bitboard by 90 degrees clockwise.
+     * @param discs the bitboard to rotate.
+     * @return the rotated bitboard.
+     */
+    public static long rotateClockwise(long discs) {
+        return mirrorHorizontal(flipDiagonal(discs));
+    }
+
+    /**
+     * Applies a transform to a bitboard.
+     * @param discs the bitboard to transform.
+     * @param transform the transform to apply, between 0 and 7.
+     * @return the transformed bitboard.
+     */
+    public static long transform(long discs, int transform) {
+        if ((transform & FLIP_DIAGONAL) != 0) {
+            discs = flipDiagonal(discs);
+        }
+        if ((transform & MIRROR_HORIZONTAL) != 0) {
+            discs = mirrorHorizontal(discs);
+        }
+        if ((transform & FLIP_VERTICAL) != 0) {
+            discs = flipVertical(discs);
+        }
+        return discs;
+    }
+
+    /**
+     * Applies a transform to the index of a field, for example to map a move found in the canonical position back to the original position.
+     * @param index the index of the field, between 0 and 63.
+     * @param transform the transform to apply, between 0 and 7.
+     * @return the index of the field after the transform.
+     */
+    public static int transformIndex(int index, int transform) {
+        return Long.numberOfTrailingZeros(transform(1L << index, transform));
+    }
+
+    /**
+     * Gets the transform that undoes the specified transform.
+     * @param transform the transform to invert, between 0 and 7.
+     * @return the inverse transform.
+     */
+    public static int inverse(int transform) {
+        if ((transform & FLIP_DIAGONAL) == 0) {
+            return transform;
+        }
+        return FLIP_DIAGONAL | ((transform & MIRROR_HORIZONTAL) << 1) | ((transform & FLIP_VERTICAL) >>> 1);
+    }
+
+    /**
+     * Finds the transform giving the canonical form of a position, which is the equivalent position with the smallest black bitboard (and then the smallest white bitboard), compared as unsigned numbers.
+     * @param position the position to canonicalise.
+     * @return the transform that turns the position into its canonical form; the lowest such transform if several give the same position.
+     */
+    public static int canonicalTransform(Position position) {
+        long black = position.getDiscs(Mark.BLACK);
+        long white = position.getDiscs(Mark.WHITE);
+        int bestTransform = IDENTITY;
+        long bestBlack = black;
+        long bestWhite = white;
+        for (int t = 1; t < COUNT; t++) {
+            long transformedBlack = transform(black, t);
+            int comparison = Long.compareUnsigned(transformedBlack, bestBlack);
+            if (comparison < 0) {
+                bestTransform = t;
+                bestBlack = transformedBlack;
+                bestWhite = transform(white, t);
+            } else if (comparison == 0) {
+                long transformedWhite = transform(white, t);
+                if (Long.compareUnsigned(transformedWhite, bestWhite) < 0) {
+                    bestTransform = t;
+                    bestWhite = transformedWhite;
+                }
+            }
+        }
+        return bestTransform;
+    }
+}
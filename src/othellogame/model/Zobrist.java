@@ -0,0 +1,81 @@
+package othellogame.model;
+
+/**
+ * Provides the random keys used for the Zobrist hashing of Othello positions.
+ * <p>
+ * The hash of a position is the XOR of one key per occupied field (depending on the mark on the field), and of an additional key when it's the turn of the second player. This allows updating the hash incrementally: placing, removing or flipping a disc only XORs one or two keys.
+ * <p>
+ * The keys are generated from a fixed seed, so the hash of a position is the same in every run of the game.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Board
+ * @see OthelloGame
+ */
+final class Zobrist {
+    /**
+     * The keys of the fields occupied by black discs.
+     */
+    static final long[] BLACK_KEYS = new long[Board.TOTALDIM];
+
+    /**
+     * The keys of the fields occupied by white discs.
+     */
+    static final long[] WHITE_KEYS = new long[Board.TOTALDIM];
+
+    /**
+     * The keys to XOR when flipping the disc on a field, which are the XOR of the black and the white key of the field.
+     */
+    static final long[] FLIP_KEYS = new long[Board.TOTALDIM];
+
+    /**
+     * The key included in the hash when it's the turn of the second player (mark WHITE).
+     */
+    static final long SIDE_KEY;
+
+    static {
+        long seed = 0x4F7448656C6C6F5AL;
+        for (int i = 0; i < Board.TOTALDIM; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            BLACK_KEYS[i] = mix(seed);
+            seed += 0x9E3779B97F4A7C15L;
+            WHITE_KEYS[i] = mix(seed);
+            FLIP_KEYS[i] = BLACK_KEYS[i] ^ WHITE_KEYS[i];
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        SIDE_KEY = mix(seed);
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the {@code Zobrist} utility class.
+     */
+    private Zobrist() {}
+
+    /**
+     * Scrambles a seed into a well-distributed 64-bit key (the SplitMix64 finalizer).
+     * @param seed the seed to scramble.
+     * @return the scrambled key.
+     */
+    private static long mix(long seed) {
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Computes the hash of the discs on a board from scratch.
+     * @param black the bitboard of the black discs.
+     * @param white the bitboard of the white discs.
+     * @return the hash of the discs.
+     */
+    static long hash(long black, long white) {
+        long hash = 0;
+        for (; black != 0; black &= black - 1) {
+            hash ^= BLACK_KEYS[Long.numberOfTrailingZeros(black)];
+        }
+        for (; white != 0; white &= white - 1) {
+            hash ^= WHITE_KEYS[Long.numberOfTrailingZeros(white)];
+        }
+        return hash;
+    }
+}
@@ -108,7 +108,7 @@ public class Model {
      * @param index the index of the move.
      */
     public void updateCurrentMove(int index) {
-        Move currentMove = new OthelloMove(currentPlayer.getMark(), index);
+        Move currentMove = OthelloMove.of(currentPlayer.getMark(), index);
         if (game.isValidMove(currentMove)) {
             Controller.getInstance().updateCurrentMoveAnnouncement(true, currentPlayer.getName(), currentPlayer.getMark(), index);
             Controller.getInstance().updateBoard(true, ((OthelloMove) currentMove).getMark(), index);
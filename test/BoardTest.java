@@ -117,6 +117,141 @@ class BoardTest {
         assertTrue(board.isEmptyField(63));
     }
 
+    /**
+     * Tests the bitboards and disc counts of the board.
+     */
+    @Test
+    void testGetAndCountDiscs() {
+        assertEquals((1L << 28) | (1L << 35), board.getDiscs(Mark.BLACK));
+        assertEquals((1L << 27) | (1L << 36), board.getDiscs(Mark.WHITE));
+        assertEquals(60, board.countDiscs(Mark.EMPTY));
+        board.setField(0, Mark.BLACK);
+        board.setField(27, Mark.BLACK);
+        assertEquals(4, board.countDiscs(Mark.BLACK));
+        assertEquals(1, board.countDiscs(Mark.WHITE));
+        board.setField(0, Mark.EMPTY);
+        assertEquals(3, board.countDiscs(Mark.BLACK));
+        assertEquals(0, board.getDiscs(Mark.BLACK) & board.getDiscs(Mark.WHITE));
+    }
+
+    /**
+     * Tests that the hash of the board only depends on the discs on the board.
+     */
+    @Test
+    void testHash() {
+        long initialHash = board.getHash();
+        assertEquals(initialHash, new Board().getHash());
+        board.setField(0, Mark.BLACK);
+        assertNotEquals(initialHash, board.getHash());
+        board.setField(0, Mark.WHITE);
+        board.setField(0, Mark.EMPTY);
+        assertEquals(initialHash, board.getHash());
+        board.setField(19, Mark.BLACK);
+        board.setField(27, Mark.BLACK);
+        Board otherBoard = new Board();
+        otherBoard.setField(27, Mark.BLACK);
+        otherBoard.setField(19, Mark.BLACK);
+        assertEquals(board.getHash(), otherBoard.getHash());
+        assertEquals(board.getHash(), board.deepCopy().getHash());
+    }
+
+    /**
+     * Tests the stable discs of the board, which can never be flipped again.
+     */
+    @Test
+    void testGetStableDiscs() {
+        assertEquals(0, board.getStableDiscs(Mark.BLACK));
+        assertEquals(0, board.getStableDiscs(Mark.WHITE));
+        for (int index : new int[]{0, 1, 2, 8, 9}) {
+            board.setField(index, Mark.BLACK);
+        }
+        board.setField(3, Mark.WHITE);
+        assertEquals((1L << 0) | (1L << 1) | (1L << 2) | (1L << 8) | (1L << 9), board.getStableDiscs(Mark.BLACK));
+        assertEquals(0, board.getStableDiscs(Mark.WHITE));
+        board.setField(63, Mark.WHITE);
+        board.setField(62, Mark.BLACK);
+        assertEquals(1L << 63, board.getStableDiscs(Mark.WHITE));
+        for (int i = 0; i < Board.TOTALDIM; i++) {
+            board.setField(i, (i * 7 % 3 == 0) ? Mark.WHITE : Mark.BLACK);
+        }
+        assertEquals(board.getDiscs(Mark.BLACK), board.getStableDiscs(Mark.BLACK));
+        assertEquals(board.getDiscs(Mark.WHITE), board.getStableDiscs(Mark.WHITE));
+    }
+
+    /**
+     * Tests that the stable discs of the board are only a subset of the discs that can never be flipped again, found from the edges, the full lines and the stable neighbours.
+     */
+    @Test
+    void testGetStableDiscsSubset() {
+        for (int index : new int[]{27, 28, 35, 36}) {
+            board.setField(index, Mark.BLACK);
+        }
+        // White has no disc left, so neither player can move and the black discs can never be flipped, but none of them is on an edge, on a full line or next to a stable disc.
+        assertEquals(0, board.getDiscs(Mark.WHITE));
+        assertEquals(0, board.getStableDiscs(Mark.BLACK));
+    }
+
+    /**
+     * Tests the discs flipped by moves in all 8 directions, including lines running from edge to edge.
+     */
+    @Test
+    void testComputeFlips() {
+        long ring = (1L << 18) | (1L << 19) | (1L << 20) | (1L << 26) | (1L << 28) | (1L << 34) | (1L << 35) | (1L << 36);
+        long player = (1L << 9) | (1L << 11) | (1L << 13) | (1L << 25) | (1L << 29) | (1L << 41) | (1L << 43) | (1L << 45);
+        assertEquals(ring, BitBoard.computeFlips(27, player, ring));
+        assertEquals(ring & ~(1L << 36), BitBoard.computeFlips(27, player & ~(1L << 45), ring));
+        long column = 0x0001010101010100L;
+        assertEquals(column, BitBoard.computeFlips(0, 1L << 56, column));
+        assertEquals(0, BitBoard.computeFlips(0, 0, column | (1L << 56)));
+        long antiDiagonal = (1L << 14) | (1L << 21) | (1L << 28) | (1L << 35) | (1L << 42) | (1L << 49);
+        assertEquals(antiDiagonal, BitBoard.computeFlips(56, 1L << 7, antiDiagonal));
+        assertEquals(0x7EL, BitBoard.computeFlips(7, 1L, 0x7EL));
+        assertEquals(0, BitBoard.computeFlips(8, 1L << 6, 1L << 7));
+    }
+
+    /**
+     * Tests the neighbours, frontier discs and potential mobility computed on the bitboards of the board.
+     */
+    @Test
+    void testMobilityFeatures() {
+        long black = board.getDiscs(Mark.BLACK);
+        long white = board.getDiscs(Mark.WHITE);
+        assertEquals((1L << 1) | (1L << 8) | (1L << 9), BitBoard.computeNeighbours(1L));
+        assertEquals((1L << 6) | (1L << 14) | (1L << 15), BitBoard.computeNeighbours(1L << 7));
+        assertEquals(black, BitBoard.computeFrontier(black, white));
+        assertEquals(6, BitBoard.countPotentialMobility(white, board.getDiscs(Mark.EMPTY) & ~BitBoard.generateMoves(black, white)));
+        assertEquals(10, BitBoard.countPotentialMobility(white, board.getDiscs(Mark.EMPTY)));
+        assertEquals(0, BitBoard.countPotentialMobility(1L << 7, 1L << 8));
+        for (int i = 0; i < Board.TOTALDIM; i++) {
+            board.setField(i, i % 2 == 0 ? Mark.BLACK : Mark.WHITE);
+        }
+        assertEquals(0, BitBoard.computeFrontier(board.getDiscs(Mark.BLACK), board.getDiscs(Mark.WHITE)));
+    }
+
+    /**
+     * Tests that the disc-square scores of the board follow the placed discs and the occupied corners.
+     */
+    @Test
+    void testGetSquareScore() {
+        assertEquals(2, board.getSquareScore(Mark.BLACK));
+        assertEquals(2, board.getSquareScore(Mark.WHITE));
+        board.setField(9, Mark.BLACK);
+        board.setField(1, Mark.WHITE);
+        assertEquals(-2, board.getSquareScore(Mark.BLACK));
+        assertEquals(-1, board.getSquareScore(Mark.WHITE));
+        board.setField(0, Mark.WHITE);
+        assertEquals(2, board.getSquareScore(Mark.BLACK));
+        assertEquals(6, board.getSquareScore(Mark.WHITE));
+        Board copiedBoard = board.deepCopy();
+        board.setField(0, Mark.EMPTY);
+        assertEquals(-2, board.getSquareScore(Mark.BLACK));
+        assertEquals(-1, board.getSquareScore(Mark.WHITE));
+        assertEquals(6, copiedBoard.getSquareScore(Mark.WHITE));
+        board.reset();
+        assertEquals(2, board.getSquareScore(Mark.BLACK));
+        assertEquals(2, board.getSquareScore(Mark.WHITE));
+    }
+
     /**
      * Tests resetting the board to its initial state.
      */
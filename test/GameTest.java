@@ -1,5 +1,8 @@
 import othellogame.model.*;
 
+import java.nio.*;
+import java.util.*;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.*;
@@ -298,6 +301,245 @@ class GameTest {
         assertEquals(Mark.WHITE, game.getWinner());
     }
 
+    /**
+     * Tests the bitboard of valid moves and its consistency with the list of valid moves.
+     */
+    @Test
+    void testValidMovesMask() {
+        assertEquals((1L << 19) | (1L << 26) | (1L << 37) | (1L << 44), game.getValidMovesMask());
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        assertEquals((1L << 18) | (1L << 20) | (1L << 34), game.getValidMovesMask());
+        long mask = 0;
+        for (Move validMove : game.getValidMoves()) {
+            mask |= 1L << ((OthelloMove) validMove).getIndex();
+        }
+        assertEquals(game.getValidMovesMask(), mask);
+    }
+
+    /**
+     * Tests the primitive valid moves methods, which don't create move objects.
+     */
+    @Test
+    void testPrimitiveValidMoves() {
+        assertEquals(4, game.countValidMoves());
+        int[] intBuffer = new int[Board.TOTALDIM];
+        assertEquals(4, game.fillValidMoves(intBuffer));
+        assertArrayEquals(new int[] {19, 26, 37, 44}, Arrays.copyOf(intBuffer, 4));
+        byte[] byteBuffer = new byte[Board.TOTALDIM];
+        assertEquals(4, game.fillValidMoves(byteBuffer));
+        assertArrayEquals(new byte[] {19, 26, 37, 44}, Arrays.copyOf(byteBuffer, 4));
+        assertTrue(game.isValidMove(26));
+        assertFalse(game.isValidMove(27));
+        assertFalse(game.isValidMove(64));
+        game.doMove(26);
+        assertEquals(Mark.BLACK, board.getField(26));
+        assertEquals(Mark.BLACK, board.getField(27));
+        assertEquals(player2, game.getTurn());
+        assertEquals(3, game.countValidMoves());
+    }
+
+    /**
+     * Tests the canonical move instances and the pass move.
+     */
+    @Test
+    void testCanonicalMoves() {
+        assertSame(OthelloMove.of(Mark.BLACK, 19), OthelloMove.of(Mark.BLACK, 19));
+        assertNotSame(OthelloMove.of(Mark.BLACK, 19), OthelloMove.of(Mark.WHITE, 19));
+        assertEquals(OthelloMove.of(Mark.WHITE, 18), new OthelloMove(Mark.WHITE, 18));
+        assertEquals(OthelloMove.of(Mark.WHITE, 18).hashCode(), new OthelloMove(Mark.WHITE, 18).hashCode());
+        assertSame(game.getValidMoves().get(0), OthelloMove.of(Mark.BLACK, 19));
+        assertEquals(100, OthelloMove.of(Mark.BLACK, 100).getIndex());
+        OthelloMove pass = OthelloMove.pass(Mark.BLACK);
+        assertTrue(pass.isPass());
+        assertEquals(OthelloMove.PASS_INDEX, pass.getIndex());
+        assertFalse(game.isValidMove(pass));
+        long hash = game.getHash();
+        game.doMove(pass);
+        assertEquals(player2, game.getTurn());
+        assertNotEquals(hash, game.getHash());
+        game.undoMove();
+        assertEquals(player1, game.getTurn());
+        assertEquals(hash, game.getHash());
+    }
+
+    /**
+     * Tests undoing moves, which restores the discs on the board and the current player.
+     */
+    @Test
+    void testUndoMove() {
+        long black = board.getDiscs(Mark.BLACK);
+        long white = board.getDiscs(Mark.WHITE);
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        long blackAfterFirstMove = board.getDiscs(Mark.BLACK);
+        long whiteAfterFirstMove = board.getDiscs(Mark.WHITE);
+        game.doMove(new OthelloMove(Mark.WHITE, 18));
+        game.undoMove();
+        assertEquals(blackAfterFirstMove, board.getDiscs(Mark.BLACK));
+        assertEquals(whiteAfterFirstMove, board.getDiscs(Mark.WHITE));
+        assertEquals(player2, game.getTurn());
+        game.undoMove();
+        assertEquals(black, board.getDiscs(Mark.BLACK));
+        assertEquals(white, board.getDiscs(Mark.WHITE));
+        assertEquals(player1, game.getTurn());
+        assertThrows(IllegalStateException.class, () -> game.undoMove());
+    }
+
+    /**
+     * Tests the list of flipped fields, which is grouped by direction and follows the last move on the undo stack.
+     */
+    @Test
+    void testFieldsToFlipList() {
+        assertTrue(game.getFieldsToFlipList().isEmpty());
+        game.doMove(new OthelloMove(Mark.BLACK, 26));
+        assertEquals(List.of(List.of(27)), game.getFieldsToFlipList());
+        game.doMove(new OthelloMove(Mark.WHITE, 18));
+        assertEquals(List.of(List.of(27)), game.getFieldsToFlipList());
+        game.doMove(new OthelloMove(Mark.BLACK, 10));
+        assertEquals(List.of(List.of(18)), game.getFieldsToFlipList());
+        game.undoMove();
+        assertEquals(List.of(List.of(27)), game.getFieldsToFlipList());
+        game.undoMove();
+        game.undoMove();
+        assertTrue(game.getFieldsToFlipList().isEmpty());
+    }
+
+    /**
+     * Tests that the memoised valid moves and game over state follow changes of the board, including changes made directly on the board.
+     */
+    @Test
+    void testValidMovesCache() {
+        assertFalse(game.isGameOver());
+        assertEquals(-1, game.countBlack());
+        board.setField(27, Mark.BLACK);
+        board.setField(36, Mark.BLACK);
+        assertTrue(game.isGameOver());
+        assertEquals(0, game.getValidMovesMask());
+        assertEquals(4, game.countBlack());
+        assertEquals(0, game.countWhite());
+        assertEquals(Mark.BLACK, game.getWinner());
+        board.setField(36, Mark.WHITE);
+        assertFalse(game.isGameOver());
+        assertEquals((1L << 37) | (1L << 44) | (1L << 45), game.getValidMovesMask());
+    }
+
+    /**
+     * Tests the immutable position snapshots of the game.
+     */
+    @Test
+    void testPosition() {
+        Position initialPosition = game.getPosition();
+        assertTrue(initialPosition.isFirstPlayerTurn());
+        assertEquals(game.getValidMovesMask(), initialPosition.getValidMovesMask());
+        Position nextPosition = initialPosition.play(19);
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        assertEquals(game.getPosition(), nextPosition);
+        assertEquals(game.getHash(), nextPosition.getHash());
+        assertEquals(Mark.WHITE, nextPosition.getTurnMark());
+        assertEquals(Mark.BLACK, nextPosition.getField(27));
+        assertEquals(Mark.WHITE, initialPosition.getField(27));
+        assertEquals(new Position(nextPosition.getDiscs(Mark.BLACK), nextPosition.getDiscs(Mark.WHITE), 1), nextPosition);
+        assertEquals(nextPosition, nextPosition.pass().pass());
+        assertEquals(nextPosition.getHash(), nextPosition.pass().pass().getHash());
+        OthelloGame copiedGame = new OthelloGame(nextPosition, player1, player2);
+        assertEquals(player2, copiedGame.getTurn());
+        assertEquals(nextPosition.getHash(), copiedGame.getHash());
+        copiedGame.doMove(new OthelloMove(Mark.WHITE, 18));
+        assertEquals(nextPosition, game.getPosition());
+        assertThrows(IllegalArgumentException.class, () -> initialPosition.play(27));
+        assertThrows(IllegalArgumentException.class, () -> new Position(1L, 1L, 0));
+    }
+
+    /**
+     * Tests the symmetries of the board and the canonical form of positions.
+     */
+    @Test
+    void testSymmetry() {
+        assertEquals(7, Symmetry.transformIndex(0, Symmetry.ROTATE_CLOCKWISE));
+        assertEquals(63, Symmetry.transformIndex(7, Symmetry.ROTATE_CLOCKWISE));
+        assertEquals(63, Symmetry.transformIndex(0, Symmetry.FLIP_ANTI_DIAGONAL));
+        assertEquals(Symmetry.rotateClockwise(0x123456789ABCDEFL), Symmetry.transform(0x123456789ABCDEFL, Symmetry.ROTATE_CLOCKWISE));
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int i = 0; i < Board.TOTALDIM; i++) {
+                int row = i / Board.DIM;
+                int col = i % Board.DIM;
+                int expectedRow = (t & Symmetry.FLIP_DIAGONAL) != 0 ? col : row;
+                int expectedCol = (t & Symmetry.FLIP_DIAGONAL) != 0 ? row : col;
+                expectedCol = (t & Symmetry.MIRROR_HORIZONTAL) != 0 ? Board.DIM - 1 - expectedCol : expectedCol;
+                expectedRow = (t & Symmetry.FLIP_VERTICAL) != 0 ? Board.DIM - 1 - expectedRow : expectedRow;
+                assertEquals(expectedRow * Board.DIM + expectedCol, Symmetry.transformIndex(i, t));
+            }
+            assertEquals(0x123456789ABCDEFL, Symmetry.transform(Symmetry.transform(0x123456789ABCDEFL, t), Symmetry.inverse(t)));
+        }
+
+        Position initialPosition = game.getPosition();
+        assertSame(initialPosition, initialPosition.transform(Symmetry.IDENTITY));
+        assertEquals(initialPosition, initialPosition.transform(Symmetry.ROTATE_180));
+        Position canonicalPosition = initialPosition.play(19).canonical();
+        for (int move : new int[]{26, 37, 44}) {
+            Position position = initialPosition.play(move);
+            assertEquals(canonicalPosition, position.canonical());
+            assertEquals(canonicalPosition.getHash(), position.canonical().getHash());
+            int transform = Symmetry.canonicalTransform(position);
+            assertEquals(position, canonicalPosition.transform(Symmetry.inverse(transform)));
+        }
+        assertNotEquals(canonicalPosition, initialPosition.play(19).pass().canonical());
+    }
+
+    /**
+     * Tests encoding and decoding positions in the binary format, one at a time and in bulk.
+     */
+    @Test
+    void testPositionCodec() {
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        Position position = game.getPosition();
+        byte[] bytes = PositionCodec.toBytes(position);
+        assertEquals(PositionCodec.BYTES, bytes.length);
+        assertEquals(1, bytes[PositionCodec.BYTES - 1]);
+        assertEquals(position, PositionCodec.fromBytes(bytes));
+        ByteBuffer buffer = ByteBuffer.allocate(3 * PositionCodec.BYTES);
+        PositionCodec.encode(game, buffer);
+        PositionCodec.encodeAll(List.of(position.pass(), position.play(18)), buffer);
+        assertThrows(BufferOverflowException.class, () -> PositionCodec.encode(position, buffer));
+        buffer.flip();
+        assertEquals(List.of(position, position.pass(), position.play(18)), PositionCodec.decodeAll(buffer));
+        assertFalse(buffer.hasRemaining());
+        bytes[PositionCodec.BYTES - 1] = 2;
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.fromBytes(bytes));
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.decodeAll(ByteBuffer.allocate(PositionCodec.BYTES + 1)));
+        ByteBuffer invalidBuffer = ByteBuffer.allocate(2 * PositionCodec.BYTES);
+        PositionCodec.encode(position, invalidBuffer);
+        invalidBuffer.put(bytes).flip();
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.decodeAll(invalidBuffer));
+        assertEquals(0, invalidBuffer.position());
+        assertEquals(position, PositionCodec.decode(invalidBuffer));
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.decode(invalidBuffer));
+        assertEquals(PositionCodec.BYTES, invalidBuffer.position());
+    }
+
+    /**
+     * Tests that the hash of the game follows the discs on the board and the player to move, including after undoing moves.
+     */
+    @Test
+    void testHash() {
+        long initialHash = game.getHash();
+        game.swapTurn();
+        assertNotEquals(initialHash, game.getHash());
+        game.swapTurn();
+        assertEquals(initialHash, game.getHash());
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        game.doMove(new OthelloMove(Mark.WHITE, 18));
+        long hash = game.getHash();
+        OthelloGame copiedGame = game.deepCopy();
+        assertEquals(hash, copiedGame.getHash());
+        copiedGame.doMove(new OthelloMove(Mark.BLACK, 17));
+        assertNotEquals(hash, copiedGame.getHash());
+        copiedGame.undoMove();
+        assertEquals(hash, copiedGame.getHash());
+        game.undoMove();
+        game.undoMove();
+        assertEquals(initialHash, game.getHash());
+    }
+
     /**
      * Tests scenarios for a not-full board game, including player turns, move validity, and win conditions.
      */
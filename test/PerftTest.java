@@ -0,0 +1,84 @@
+import othellogame.model.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * JUnit test class for the {@link Perft} tool, which checks the move generator against the known game tree sizes.
+ * @author Dinh Thuy Nhat Vy
+ * @version 1.0, 12/07/2023
+ * @see Perft
+ * @see OthelloGame
+ */
+class PerftTest {
+    /**
+     * The number of leaves of the game tree from the start position, indexed by the depth.
+     */
+    private static final long[] LEAVES = {1, 4, 12, 56, 244, 1396, 8200, 55092};
+
+    /**
+     * The instance of the Othello game being tested.
+     */
+    private OthelloGame game;
+
+    /**
+     * Default constructor for the {@code PerftTest} class.
+     * <p>
+     * Note: this constructor is automatically generated by the compiler and is not intended for direct use.
+     */
+    @SuppressWarnings("unused")
+    PerftTest() {}
+
+    /**
+     * Sets up a new game in the start position before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        this.game = new OthelloGame(new HumanPlayer("1st player", Mark.BLACK), new HumanPlayer("2nd player", Mark.WHITE));
+    }
+
+    /**
+     * Tests the number of leaves from the start position on a single thread and with fork-join tasks.
+     */
+    @Test
+    void testStartPosition() {
+        long hash = game.getHash();
+        for (int depth = 0; depth < LEAVES.length; depth++) {
+            Perft.Result single = Perft.run(game, depth);
+            Perft.Result parallel = Perft.runParallel(game, depth);
+            assertEquals(LEAVES[depth], single.getLeaves());
+            assertEquals(LEAVES[depth], parallel.getLeaves());
+            assertEquals(single.getNodes(), parallel.getNodes());
+            assertEquals(0, single.getPasses());
+            assertEquals(0, single.getGameEnds());
+        }
+        assertEquals(hash, game.getHash());
+        assertEquals(Mark.BLACK, game.getBoard().getField(28));
+    }
+
+    /**
+     * Tests that passes and game ends before the requested depth are counted.
+     */
+    @Test
+    void testPassAndGameEnd() {
+        Board board = game.getBoard();
+        for (int index : new int[]{27, 28, 35, 36}) {
+            board.setField(index, Mark.EMPTY);
+        }
+        board.setField(0, Mark.BLACK);
+        board.setField(1, Mark.BLACK);
+        board.setField(2, Mark.WHITE);
+        game.swapTurn();
+        Perft.Result result = Perft.run(game, 1);
+        assertEquals(1, result.getLeaves());
+        assertEquals(1, result.getPasses());
+        result = Perft.run(game, 3);
+        assertEquals(1, result.getLeaves());
+        assertEquals(1, result.getPasses());
+        assertEquals(1, result.getGameEnds());
+        assertEquals(3, result.getNodes());
+        assertEquals(result.getLeaves(), Perft.runParallel(game, 3).getLeaves());
+        assertFalse(game.isFirstPlayerTurn());
+    }
+}
@@ -2,12 +2,15 @@ import org.junit.jupiter.api.*;
 import othellogame.ai.*;
 import othellogame.model.*;
 
+import java.io.*;
+import java.util.concurrent.*;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * JUnit test class for the interaction between different player implementations and strategies in the Othello game.
  * <p>
- * This class includes tests for player names, player marks, and strategies such as {@link NaiveStrategy} and {@link SmartStrategy}.
+ * This class includes tests for player names, player marks, and strategies such as {@link NaiveStrategy}, {@link SmartStrategy} and {@link PatternStrategy}.
  * @author Dinh Thuy Nhat Vy
  * @version 1.0, 12/07/2023
  * @see AbstractPlayer
@@ -17,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * @see ComputerPlayer
  * @see NaiveStrategy
  * @see SmartStrategy
+ * @see PatternStrategy
  * @see Move
  */
 class PlayerAndStrategyTest {
@@ -113,4 +117,346 @@ class PlayerAndStrategyTest {
         }
         assertEquals(player4.getMark(), randomGame.getWinner());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the iterative deepening of the {@code SmartStrategy} within its depth, time and node budgets.
+     */
+    @Test
+    void testSmartStrategyBudget() {
+        OthelloGame game = new OthelloGame(player1, player2);
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        SmartStrategy deepStrategy = new SmartStrategy(4, 0, 0);
+        Move deepMove = deepStrategy.determineMove(game);
+        assertTrue(game.isValidMove(deepMove));
+        assertEquals(4, deepStrategy.getLastDepth());
+        assertEquals(deepMove, new SmartStrategy(4, 0, 0).determineMove(game));
+        SmartStrategy limitedStrategy = new SmartStrategy(SmartStrategy.DEFAULT_DEPTH, 0, 1);
+        assertTrue(game.isValidMove(limitedStrategy.determineMove(game)));
+        assertEquals(1, limitedStrategy.getLastDepth());
+        SmartStrategy timedStrategy = new SmartStrategy(60, 50, 0);
+        assertTrue(game.isValidMove(timedStrategy.determineMove(game)));
+        assertTrue(timedStrategy.getLastDepth() < 60);
+        assertThrows(IllegalArgumentException.class, () -> new SmartStrategy(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SmartStrategy(1, -1, 0));
+    }
+
+    /**
+     * Tests that the move ordering of the {@code SmartStrategy}, with or without fastest-first ordering, doesn't change the chosen move.
+     */
+    @Test
+    void testSmartStrategyMoveOrdering() {
+        OthelloGame game = new OthelloGame(player1, player2);
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        Move move = new SmartStrategy(4, 0, 0).determineMove(game);
+        SmartStrategy fastestFirstStrategy = new SmartStrategy(4, 0, 0);
+        fastestFirstStrategy.setFastestFirst(true);
+        assertEquals(move, fastestFirstStrategy.determineMove(game));
+        assertEquals(4, fastestFirstStrategy.getLastDepth());
+    }
+
+    /**
+     * Tests that the lazy SMP search of the {@code SmartStrategy} doesn't change the chosen move, and that its helper threads share the node budget of the move.
+     */
+    @Test
+    void testSmartStrategyThreads() {
+        OthelloGame game = new OthelloGame(player1, player2);
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        Move move = new SmartStrategy(4, 0, 0).determineMove(game);
+        SmartStrategy parallelStrategy = new SmartStrategy(4, 0, 0);
+        parallelStrategy.setThreads(3);
+        assertEquals(move, parallelStrategy.determineMove(game));
+        assertEquals(4, parallelStrategy.getLastDepth());
+        SmartStrategy limitedStrategy = new SmartStrategy(60, 0, 100000);
+        limitedStrategy.setThreads(3);
+        assertTrue(game.isValidMove(limitedStrategy.determineMove(game)));
+        assertTrue(limitedStrategy.getLastNodes() >= 100000);
+        assertTrue(limitedStrategy.getLastNodes() < 110000);
+        assertThrows(IllegalArgumentException.class, () -> parallelStrategy.setThreads(0));
+    }
+
+    /**
+     * Tests that scoring the root moves of the {@code SmartStrategy} in fork-join tasks doesn't change the chosen move, and that the tasks share the node budget of the move.
+     */
+    @Test
+    void testSmartStrategyForkJoinPool() {
+        SmartStrategy rootSplitStrategy = new SmartStrategy(4, 0, 0);
+        rootSplitStrategy.setForkJoinPool(ForkJoinPool.commonPool());
+        OthelloGame game = new OthelloGame(player1, player2);
+        for (int i = 0; i < 6 && !game.isGameOver(); i++) {
+            Move move = new SmartStrategy(4, 0, 0).determineMove(game);
+            assertEquals(move, rootSplitStrategy.determineMove(game));
+            game.doMove(move);
+        }
+        SmartStrategy limitedStrategy = new SmartStrategy(60, 0, 100000);
+        limitedStrategy.setForkJoinPool(ForkJoinPool.commonPool());
+        assertTrue(game.isValidMove(limitedStrategy.determineMove(game)));
+        assertTrue(limitedStrategy.getLastNodes() >= 100000);
+        assertTrue(limitedStrategy.getLastNodes() < 150000);
+    }
+
+    /**
+     * Tests that the principal variation search of the {@code SmartStrategy} chooses the same move as a plain negamax search of the same depth, including the move with the highest index among equally good moves.
+     */
+    @Test
+    void testPrincipalVariationSearch() {
+        OthelloGame game = new OthelloGame(player1, player2);
+        int bestScore = Integer.MIN_VALUE;
+        int tiedMoves = 0;
+        for (long moves = game.getValidMovesMask(); moves != 0; moves &= moves - 1) {
+            game.doMove(Long.numberOfTrailingZeros(moves));
+            int score = -referenceScore(game, 2);
+            game.undoMove();
+            if (score > bestScore) {
+                bestScore = score;
+                tiedMoves = 1;
+            } else if (score == bestScore) {
+                tiedMoves++;
+            }
+        }
+        assertTrue(tiedMoves >= 2);
+        for (int i = 0; i < 12 && !game.isGameOver(); i++) {
+            if (game.getValidMovesMask() == 0) {
+                game.swapTurn();
+                continue;
+            }
+            int depth = 3 + i % 2;
+            Move move = OthelloMove.of(game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE, referenceMove(game, depth));
+            assertEquals(move, new SmartStrategy(depth, 0, 0).determineMove(game));
+            game.doMove(move);
+        }
+    }
+
+    /**
+     * Chooses a move with a plain negamax search without pruning, as a reference for the {@code SmartStrategy}.
+     * @param game the game, whose player to move has at least 1 valid move.
+     * @param depth the number of moves searched ahead, including the move being chosen.
+     * @return the index of the best move, or of the move with the highest index if several moves are equally good.
+     */
+    private static int referenceMove(OthelloGame game, int depth) {
+        int bestScore = Integer.MIN_VALUE;
+        int bestIndex = -1;
+        for (long moves = game.getValidMovesMask(); moves != 0; moves &= moves - 1) {
+            int index = Long.numberOfTrailingZeros(moves);
+            game.doMove(index);
+            int score = -referenceScore(game, depth - 1);
+            game.undoMove();
+            if (score >= bestScore) {
+                bestScore = score;
+                bestIndex = index;
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Scores a position with a plain negamax search without pruning, with the heuristic score in thousandths at the leaves, as the {@code SmartStrategy} does.
+     * @param game the game in the position to score.
+     * @param depth the number of moves left to search, a pass counting as a move.
+     * @return the score of the position from the point of view of the player to move.
+     */
+    private static int referenceScore(OthelloGame game, int depth) {
+        if (depth == 0) {
+            int score = (int) Math.round(game.calculateHeuristicScore() * 1000);
+            return game.isFirstPlayerTurn() ? score : -score;
+        }
+        if (game.isGameOver()) {
+            Mark winner = game.getWinner();
+            if (winner == Mark.EMPTY) {
+                return 0;
+            }
+            return (winner == Mark.BLACK) == game.isFirstPlayerTurn() ? 1000000000 : -1000000000;
+        }
+        long moves = game.getValidMovesMask();
+        if (moves == 0) {
+            game.swapTurn();
+            int score = -referenceScore(game, depth - 1);
+            game.swapTurn();
+            return score;
+        }
+        int bestScore = Integer.MIN_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            game.doMove(Long.numberOfTrailingZeros(moves));
+            bestScore = Math.max(bestScore, -referenceScore(game, depth - 1));
+            game.undoMove();
+        }
+        return bestScore;
+    }
+
+    /**
+     * Tests storing and looking up search results in the {@code TranspositionTable}, including the replacement of the entries of a bucket, and that the table kept by the {@code SmartStrategy} doesn't change the chosen move.
+     */
+    @Test
+    void testTranspositionTable() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1 << 16, table.capacity());
+        long hash = 0x123456789ABCDEFL;
+        assertEquals(0, table.probe(hash));
+        table.store(hash, 3, TranspositionTable.LOWER, -4500, 19);
+        long entry = table.probe(hash);
+        assertEquals(3, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(-4500, TranspositionTable.score(entry));
+        assertEquals(19, TranspositionTable.move(entry));
+        table.store(hash, 4, TranspositionTable.UPPER, 700, TranspositionTable.NO_MOVE);
+        entry = table.probe(hash);
+        assertEquals(700, TranspositionTable.score(entry));
+        assertEquals(19, TranspositionTable.move(entry));
+        long otherHash = hash + (1L << 40);
+        table.store(otherHash, 1, TranspositionTable.EXACT, 5, 63);
+        assertEquals(4, TranspositionTable.depth(table.probe(hash)));
+        assertEquals(63, TranspositionTable.move(table.probe(otherHash)));
+        assertEquals(0, table.probe(hash + (2L << 40)));
+        table.clear();
+        assertEquals(0, table.probe(hash));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        OthelloGame game = new OthelloGame(player1, player2);
+        game.doMove(new OthelloMove(Mark.BLACK, 19));
+        SmartStrategy strategy = new SmartStrategy(4, 0, 0);
+        Move move = strategy.determineMove(game);
+        assertEquals(move, strategy.determineMove(game));
+        assertEquals(move, new SmartStrategy(4, 0, 0).determineMove(game));
+    }
+
+    /**
+     * Tests the {@code EndgameSolver} against a plain negamax search, on a single thread and split in a pool, and the {@code SmartStrategy} playing a solved move near the end of the game.
+     */
+    @Test
+    void testEndgameSolver() {
+        OthelloGame game = new OthelloGame(player1, player2);
+        while (game.getBoard().countDiscs(Mark.EMPTY) > 16) {
+            long moves = game.getValidMovesMask();
+            if (moves == 0) {
+                game.swapTurn();
+            } else {
+                game.doMove(63 - Long.numberOfLeadingZeros(moves));
+            }
+        }
+        Mark limitedMark = game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE;
+        EndgameSolver limitedSolver = new EndgameSolver();
+        limitedSolver.solve(game.getBoard().getDiscs(limitedMark), game.getBoard().getDiscs(limitedMark.otherMark()), 0, 5000);
+        assertTrue(limitedSolver.isStopped());
+        // The budget is checked once every 1024 positions.
+        assertTrue(limitedSolver.getNodes() >= 5000 && limitedSolver.getNodes() < 5000 + 2048);
+        ForkJoinPool limitedPool = new ForkJoinPool(3);
+        limitedSolver.setForkJoinPool(limitedPool);
+        limitedSolver.setSplitEmpties(5);
+        limitedSolver.solve(game.getBoard().getDiscs(limitedMark), game.getBoard().getDiscs(limitedMark.otherMark()), 0, 5000);
+        assertTrue(limitedSolver.isStopped());
+        // Each thread of the pool checks the budget once every 1024 positions.
+        assertTrue(limitedSolver.getNodes() >= 5000 && limitedSolver.getNodes() < 5000 + 3 * 2048);
+        limitedPool.shutdown();
+        SmartStrategy limitedStrategy = new SmartStrategy(SmartStrategy.DEFAULT_DEPTH, 0, 5000);
+        limitedStrategy.setEndgameEmpties(16);
+        assertTrue(game.isValidMove(limitedStrategy.determineMove(game)));
+        // The search after the stopped solve only gets the positions the solve left over.
+        assertTrue(limitedStrategy.getLastDepth() < 16);
+        assertTrue(limitedStrategy.getLastNodes() < 5000 + 2 * 2048);
+        while (game.getBoard().countDiscs(Mark.EMPTY) > 9) {
+            long moves = game.getValidMovesMask();
+            if (moves == 0) {
+                game.swapTurn();
+            } else {
+                game.doMove(63 - Long.numberOfLeadingZeros(moves));
+            }
+        }
+        Mark mark = game.isFirstPlayerTurn() ? Mark.BLACK : Mark.WHITE;
+        long player = game.getBoard().getDiscs(mark);
+        long opponent = game.getBoard().getDiscs(mark.otherMark());
+        EndgameSolver solver = new EndgameSolver();
+        int score = solver.solve(player, opponent);
+        assertFalse(solver.isStopped());
+        assertEquals(negamax(player, opponent, false), score);
+        int bestMove = solver.getBestMove();
+        long flips = BitBoard.computeFlips(bestMove, player, opponent);
+        assertEquals(score, -negamax(opponent & ~flips, player | flips | (1L << bestMove), false));
+        for (long moves = BitBoard.generateMoves(player, opponent); moves != 0; moves &= moves - 1) {
+            int index = Long.numberOfTrailingZeros(moves);
+            long moveFlips = BitBoard.computeFlips(index, player, opponent);
+            // Among equally good moves, the move with the highest index wins, as in the search.
+            assertTrue(index <= bestMove || -negamax(opponent & ~moveFlips, player | moveFlips | (1L << index), false) < score);
+        }
+        EndgameSolver parallelSolver = new EndgameSolver();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        parallelSolver.setForkJoinPool(pool);
+        parallelSolver.setSplitEmpties(5);
+        assertEquals(score, parallelSolver.solve(player, opponent));
+        assertEquals(bestMove, parallelSolver.getBestMove());
+        pool.shutdown();
+        assertThrows(IllegalArgumentException.class, () -> parallelSolver.setSplitEmpties(4));
+        SmartStrategy strategy = new SmartStrategy();
+        strategy.setEndgameEmpties(9);
+        assertEquals(OthelloMove.of(mark, bestMove), strategy.determineMove(game));
+        assertEquals(9, strategy.getLastDepth());
+        assertEquals(solver.getNodes(), strategy.getLastNodes());
+        assertThrows(IllegalArgumentException.class, () -> strategy.setEndgameEmpties(-1));
+    }
+
+    /**
+     * Computes the final disc difference of a position under perfect play by searching every move, without any pruning.
+     * @param player the bitboard of the discs of the player to move.
+     * @param opponent the bitboard of the discs of the opponent.
+     * @param passed whether the previous player passed.
+     * @return the final disc difference from the point of view of the player to move.
+     */
+    private static int negamax(long player, long opponent, boolean passed) {
+        long moves = BitBoard.generateMoves(player, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return Long.bitCount(player) - Long.bitCount(opponent);
+            }
+            return -negamax(opponent, player, true);
+        }
+        int best = -64;
+        for (; moves != 0; moves &= moves - 1) {
+            int index = Long.numberOfTrailingZeros(moves);
+            long flips = BitBoard.computeFlips(index, player, opponent);
+            best = Math.max(best, -negamax(opponent & ~flips, player | flips | (1L << index), false));
+        }
+        return best;
+    }
+
+    /**
+     * Tests the {@code PatternStrategy} by making moves until the game is over, ensuring every move is valid.
+     */
+    @Test
+    void testPatternStrategy() {
+        AbstractPlayer patternPlayer = new ComputerPlayer(new PatternStrategy(PatternEvaluator.getDefault(), 3), Mark.BLACK);
+        assertEquals("Pattern AI", patternPlayer.getName());
+        OthelloGame game = new OthelloGame(patternPlayer, player4);
+        while (!game.isGameOver()) {
+            AbstractPlayer currentPlayer = (AbstractPlayer) game.getTurn();
+            if (game.getValidMoves().isEmpty()) {
+                assertNull(currentPlayer.determineMove(game));
+                game.swapTurn();
+            } else {
+                Move move = currentPlayer.determineMove(game);
+                assertTrue(game.isValidMove(move));
+                game.doMove(move);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PatternStrategy(PatternEvaluator.getDefault(), 0));
+    }
+
+    /**
+     * Tests the {@code PatternEvaluator}, including the symmetry of its default weights and saving and loading the weights.
+     */
+    @Test
+    void testPatternEvaluator() throws IOException {
+        PatternEvaluator evaluator = PatternEvaluator.getDefault();
+        long player = (1L << 0) | (1L << 1) | (1L << 28) | (1L << 35);
+        long opponent = (1L << 9) | (1L << 27) | (1L << 36);
+        int score = evaluator.evaluate(player, opponent);
+        assertTrue(score > 0);
+        assertEquals(-score, evaluator.evaluate(opponent, player));
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            assertEquals(score, evaluator.evaluate(Symmetry.transform(player, t), Symmetry.transform(opponent, t)));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        evaluator.save(out);
+        PatternEvaluator loadedEvaluator = PatternEvaluator.load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(score, loadedEvaluator.evaluate(player, opponent));
+        assertEquals(evaluator.getWeight(3, PatternEvaluator.EDGE_2X, 1), loadedEvaluator.getWeight(3, PatternEvaluator.EDGE_2X, 1));
+        assertThrows(IOException.class, () -> PatternEvaluator.load(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        assertThrows(IllegalArgumentException.class, () -> new PatternEvaluator(new short[1][][]));
+    }
+}